@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas;
+
+import es.ujaen.metaheuristicas.evaluator.RulePlan;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.uma.jmetal.algorithm.multiobjective.nsgaii.NSGAII;
+import org.uma.jmetal.operator.CrossoverOperator;
+import org.uma.jmetal.operator.MutationOperator;
+import org.uma.jmetal.operator.SelectionOperator;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+/**
+ * NSGA-II that removes the clone offspring before they are evaluated.
+ *
+ * An offspring is a clone if its antecedent is equal to the antecedent of an
+ * individual of the current population or of a previous offspring of the same
+ * generation. Clones are removed from the offspring population, so they are
+ * not evaluated and they do not take the place of different patterns in the
+ * next population. The budget of evaluations is consumed as in NSGA-II, so the
+ * number of generations does not change.
+ *
+ * @author agvico
+ * @param <S> The type of the solutions
+ */
+public class CloneFreeNSGAII<S extends BinarySolution> extends NSGAII<S> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of clones removed since the beginning of the run
+     */
+    private long removedClones = 0;
+
+    public CloneFreeNSGAII(Problem<S> problem, int maxEvaluations, int populationSize, int matingPoolSize, int offspringPopulationSize, CrossoverOperator<S> crossoverOperator, MutationOperator<S> mutationOperator, SelectionOperator<List<S>, S> selectionOperator, Comparator<S> dominanceComparator, SolutionListEvaluator<S> evaluator) {
+        super(problem, maxEvaluations, populationSize, matingPoolSize, offspringPopulationSize, crossoverOperator, mutationOperator, selectionOperator, dominanceComparator, evaluator);
+    }
+
+    @Override
+    protected void initProgress() {
+        super.initProgress();
+        removedClones = 0;
+    }
+
+    @Override
+    protected List<S> reproduction(List<S> matingPool) {
+        Set<RulePlan> seen = new HashSet<>(4 * getPopulation().size());
+        for (S individual : getPopulation()) {
+            seen.add(RulePlan.compile(individual));
+        }
+
+        List<S> offspring = super.reproduction(matingPool);
+
+        List<S> unique = new ArrayList<>(offspring.size());
+        for (S child : offspring) {
+            if (seen.add(RulePlan.compile(child))) {
+                unique.add(child);
+            }
+        }
+        removedClones += offspring.size() - unique.size();
+
+        return unique;
+    }
+
+    /**
+     * The number of clone offspring removed since the beginning of the run
+     *
+     * @return
+     */
+    public long getRemovedClones() {
+        return removedClones;
+    }
+}
@@ -16,8 +16,9 @@
  */
 package es.ujaen.metaheuristicas;
 
-import es.ujaen.metaheuristicas.attributes.TablaContingencia;
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
 import es.ujaen.metaheuristicas.evaluator.EvaluatorIndDNF;
+import es.ujaen.metaheuristicas.fuzzy.FuzzyPartition;
 import es.ujaen.metaheuristicas.fuzzy.FuzzySet;
 import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTable;
 import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure;
@@ -100,12 +101,12 @@ public class LocalSearch {
      * @return 
      */
     private double evaluate(List<List<FuzzySet>> solution, List<BinarySolution> currentPopulation, EvaluatorIndDNF evaluator, QualityMeasure measure) {
-        
+        CoverageIndex index = new CoverageIndex(problem.getColumnarDataset(), FuzzyPartition.ofVariables(solution));
         return currentPopulation.parallelStream()
                 .mapToDouble((BinarySolution individual) -> {
-                    evaluator.doEvaluation(individual, solution, problem.getDataset());
-                    ContingencyTable table = (ContingencyTable) individual.getAttribute(TablaContingencia.class);
-                    return measure.calculateValue(table);
+                    evaluator.doEvaluation(individual, index);
+                    ContingencyTable table = (ContingencyTable) individual.getAttribute(ContingencyTable.class);
+                    return measure.compute(table);
                 }).sum() / (double) currentPopulation.size();
                 
     }
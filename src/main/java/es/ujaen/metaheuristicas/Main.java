@@ -17,18 +17,24 @@
 package es.ujaen.metaheuristicas;
 
 
+import es.ujaen.metaheuristicas.attributes.Clase;
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
+import es.ujaen.metaheuristicas.dataset.DatasetCache;
+import es.ujaen.metaheuristicas.evaluator.EvaluationCache;
+import es.ujaen.metaheuristicas.evaluator.Evaluator;
 import es.ujaen.metaheuristicas.evaluator.EvaluatorIndDNF;
+import es.ujaen.metaheuristicas.evaluator.ParallelSolutionListEvaluator;
+import es.ujaen.metaheuristicas.evaluator.RulePlan;
 import es.ujaen.metaheuristicas.fuzzy.FuzzySet;
 import es.ujaen.metaheuristicas.fuzzy.TriangularFuzzySet;
 import es.ujaen.metaheuristicas.operators.crossover.NPointCrossover;
 import es.ujaen.metaheuristicas.operators.mutation.BiasedMutationDNF;
-import es.ujaen.metaheuristicas.qualitymeasures.SuppDiff;
-import es.ujaen.metaheuristicas.qualitymeasures.WRAccNorm;
+import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasureRegistry;
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -48,6 +54,7 @@ import org.uma.jmetal.util.SolutionUtils;
 import org.uma.jmetal.util.archive.impl.NonDominatedSolutionListArchive;
 import org.uma.jmetal.util.comparator.DominanceComparator;
 import org.uma.jmetal.util.comparator.RankingAndCrowdingDistanceComparator;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
 import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 import picocli.CommandLine;
 import picocli.CommandLine.Parameters;
@@ -88,6 +95,39 @@ public class Main implements Callable<Integer> {
     @Option(names = {"-s", "--seed"}, description = "The seed for the random number generator", defaultValue = "1")
     private Integer seed = 1;
 
+    @Option(names = {"-a", "--allClasses"}, description = "Search the patterns of all the classes in a single run, choosing the consequent of each pattern during the evaluation")
+    private boolean allClasses = false;
+
+    @Option(names = {"-t", "--threads"}, description = "The number of threads for evaluating the population (1 = sequential evaluation)", defaultValue = "1")
+    private Integer threads = 1;
+
+    @Option(names = {"-C", "--cacheSize"}, description = "The maximum number of rule antecedents whose evaluation is cached (0 = no cache, the default)", defaultValue = "0")
+    private Integer cacheSize = 0;
+
+    @Option(names = {"-M", "--coverageMemory"}, description = "The memory (in MB) for storing the coverage of each variable of the population, employed for re-evaluating the offspring incrementally (0 = evaluate from scratch, the default)", defaultValue = "0")
+    private Integer coverageMemory = 0;
+
+    @Option(names = {"-O", "--objectives"}, split = ",", description = "The short names of the quality measures to optimise, separated by commas", defaultValue = "WRAcc_Norm,SuppDiff")
+    private List<String> objectives;
+
+    @Option(names = {"-r", "--removeClones"}, description = "Remove the offspring whose rule is already in the population before evaluating them")
+    private boolean removeClones = false;
+
+    @Option(names = {"-v", "--validation"}, description = "What to do when an objective is out of its range: STRICT (finish the execution, the default) or FLAG (mark the individual as invalid and continue)", defaultValue = "STRICT")
+    private Evaluator.ValidationMode validation = Evaluator.ValidationMode.STRICT;
+
+    @Option(names = {"-W", "--weka"}, description = "Read the datasets with weka instead of the native ARFF/CSV reader")
+    private boolean wekaReader = false;
+
+    @Option(names = {"-K", "--datasetCache"}, description = "The directory of the cache of preprocessed datasets. Datasets are stored there when they are first read (no cache by default)")
+    private String datasetCache;
+
+    @Option(names = {"-D", "--deduplicate"}, description = "Evaluate the patterns over the distinct signatures (nominal values and active labels) of the instances, weighted by their number of instances of each class")
+    private boolean deduplicate = false;
+
+    @Option(names = {"-e", "--encodeNumeric"}, description = "Store the numeric attributes with few distinct values as dictionary codes, so their belonging degrees are computed once per distinct value")
+    private boolean encodeNumeric = false;
+
     @Override
     public Integer call() throws Exception {
         logger.setLevel(Level.INFO);
@@ -95,14 +135,42 @@ public class Main implements Callable<Integer> {
         // Choose the problem (in this case, an EPM Problem)
         Problema problem = (Problema) ProblemUtils.<BinarySolution>loadProblem("es.ujaen.metaheuristicas.Problema");
 
-        // Configure the problem
+        // Configure the problem. The labels are set first, so the fuzzy sets are generated once when reading the data
+        problem.setNumberOfLabels(numLabels);
+        problem.setWekaReader(wekaReader);
+        problem.setDeduplicate(deduplicate);
+        problem.setDictionaryEncoding(encodeNumeric);
+        if (datasetCache != null) {
+            problem.setDatasetCache(new DatasetCache(datasetCache));
+        }
         problem.readDataset(trainingFile);
+        // The test data only depends on the fuzzy sets, so it is read while the algorithm runs
+        CompletableFuture<CoverageIndex> testData = problem.readEvaluationDatasetAsync(testFile);
         problem.setInitialisationMethod(Problema.ORIENTED_INITIALISATION);
-        problem.setNumberOfLabels(numLabels);
-        problem.setNumberOfObjectives(2);
-        problem.setEvaluator(new EvaluatorIndDNF());
-        problem.addObjective(new WRAccNorm());
-        problem.addObjective(new SuppDiff());
+        if (encodeNumeric) {
+            int encoded = 0;
+            for (int var = 0; var < problem.getColumnarDataset().getNumAttributes(); var++) {
+                encoded += problem.getColumnarDataset().isEncoded(var) ? 1 : 0;
+            }
+            logger.info("Dictionary-encoded numeric attributes: " + encoded);
+        }
+        if (deduplicate) {
+            logger.info("Distinct instance signatures: " + problem.getCoverageIndex().getNumRows() + " of " + problem.getCoverageIndex().getNumInstances() + " instances");
+        }
+        problem.setNumberOfObjectives(objectives.size());
+        EvaluatorIndDNF evaluator = new EvaluatorIndDNF();
+        if (cacheSize > 0) {
+            // Equivalent chromosomes share their evaluation, which is valid for every class
+            evaluator.setCache(new EvaluationCache(cacheSize));
+        }
+        // Split the memory among the individuals alive during a generation (population and offspring), in 64-bit words
+        evaluator.setMaxCoverageWords(coverageMemory * 1024L * 1024L / 8 / (2L * populationSize));
+        evaluator.setValidationMode(validation);
+        problem.setEvaluator(evaluator);
+        for (String objective : objectives) {
+            problem.addObjective(QualityMeasureRegistry.create(objective));
+        }
+        problem.setAllClasses(allClasses);
 
         // Specify the seed of the problem 
         long t = System.currentTimeMillis();
@@ -110,50 +178,93 @@ public class Main implements Callable<Integer> {
 
         // Choose the crossover algorithm: In this case, the 2-point crossover
         NPointCrossover<BinarySolution> crossover = new NPointCrossover<>(crossoverProbability, 2);
+        @SuppressWarnings("unchecked")
+        CrossoverOperator<BinarySolution> crossoverOperator = (CrossoverOperator<BinarySolution>) (CrossoverOperator<?>) crossover;
 
         // Mutation operator
-        MutationOperator mutation = new BiasedMutationDNF(mutationProbability);
+        MutationOperator<BinarySolution> mutation = new BiasedMutationDNF(mutationProbability);
 
         // Selection operator: In this case, binary tournament
         BinaryTournamentSelection<BinarySolution> selection = new BinaryTournamentSelection<>(new RankingAndCrowdingDistanceComparator<>());
 
         // Set Dominance Comparator: WARNING! jMetal MINIMISES objectives, whereas we  MAXIMISE THEM. It is mandatory to REVERSE THIS COMPARATOR !
         DominanceComparator<BinarySolution> dominanceComparator = new DominanceComparator<>();
+        Comparator<BinarySolution> comparator = dominanceComparator.reversed();
+        if (allClasses) {
+            // Patterns of different classes do not dominate each other, so the population keeps patterns for every class
+            Comparator<BinarySolution> sameClassComparator = comparator;
+            comparator = (x, y) -> x.getAttribute(Clase.class).equals(y.getAttribute(Clase.class)) ? sameClassComparator.compare(x, y) : 0;
+        }
+
+        // Population evaluator: the objectives of the offspring are calculated in a single batch, and the coverage of
+        // each individual is computed in parallel if there are several threads. Results are the same for a given seed.
+        SolutionListEvaluator<BinarySolution> listEvaluator = new ParallelSolutionListEvaluator<>(threads);
 
         // The full population (the one with patterns for all classes)
         List<BinarySolution> fullPopulation = new ArrayList<>();
-        for (int clazz = 0; clazz < problem.getNumberOfClasses(); clazz++) {  // Run the algorithm for each class of the problem
+        int numberOfRuns = allClasses ? 1 : problem.getNumberOfClasses();
+        for (int clazz = 0; clazz < numberOfRuns; clazz++) {  // Run the algorithm for each class of the problem (or once for all of them)
 
-            logger.info("Running class " + clazz);
+            logger.info(allClasses ? "Running all classes" : "Running class " + clazz);
 
             // Set the class of the population
             problem.setClass(clazz);
 
             // Create the algorithm
             // NOTE:  Replace this with your own ALGORITHM CONSTRUCTOR !!!!!
-            NSGAII<BinarySolution> algorithm = new NSGAIIBuilder<BinarySolution>(problem, (CrossoverOperator) crossover, mutation, populationSize)
-                    .setSelectionOperator(selection)
-                    .setMaxEvaluations(25000)
-                    .setDominanceComparator(dominanceComparator.reversed())
-                    .build();
+            NSGAII<BinarySolution> algorithm;
+            if (removeClones) {
+                algorithm = new CloneFreeNSGAII<>(problem, 25000, populationSize, populationSize, populationSize, crossoverOperator, mutation, selection, comparator, listEvaluator);
+            } else {
+                algorithm = new NSGAIIBuilder<BinarySolution>(problem, crossoverOperator, mutation, populationSize)
+                        .setSelectionOperator(selection)
+                        .setMaxEvaluations(25000)
+                        .setDominanceComparator(comparator)
+                        .setSolutionListEvaluator(listEvaluator)
+                        .build();
+            }
 
             // Execute the algorithm
             AlgorithmRunner algorithmRunner = new AlgorithmRunner.Executor(algorithm).execute();
 
-            // Get the results
-            List<BinarySolution> nonDominatedSolutions = SolutionListUtils.getNondominatedSolutions(algorithm.getResult());
-            
-            // Remove repeated patterns and add them to the final result
-            fullPopulation.addAll(removeRepeatedPatterns(nonDominatedSolutions, problem));
+            if (allClasses) {
+                // Get the results and remove repeated patterns of each class. Patterns of different classes must not be compared
+                for (int c = 0; c < problem.getNumberOfClasses(); c++) {
+                    final int consequent = c;
+                    List<BinarySolution> patternsOfClass = algorithm.getPopulation().stream()
+                            .filter(s -> (Integer) s.getAttribute(Clase.class) == consequent)
+                            .collect(Collectors.toList());
+                    if (!patternsOfClass.isEmpty()) {
+                        fullPopulation.addAll(removeRepeatedPatterns(SolutionListUtils.getNondominatedSolutions(patternsOfClass), problem));
+                    }
+                }
+            } else {
+                // Get the results
+                List<BinarySolution> nonDominatedSolutions = SolutionListUtils.getNondominatedSolutions(algorithm.getResult());
+
+                // Remove repeated patterns and add them to the final result
+                fullPopulation.addAll(removeRepeatedPatterns(nonDominatedSolutions, problem));
+            }
 
             long computingTime = algorithmRunner.getComputingTime();
 
             logger.info("Total execution time: " + computingTime + "ms");
+            if (algorithm instanceof CloneFreeNSGAII) {
+                logger.info("Removed clones: " + ((CloneFreeNSGAII<?>) algorithm).getRemovedClones());
+            }
+            if (evaluator.getCache() != null) {
+                logger.info(evaluator.getCache().toString());
+            }
+            if (evaluator.getInvalidIndividuals() > 0) {
+                logger.warning("Individuals with objectives out of range: " + evaluator.getInvalidIndividuals());
+            }
         }
 
+        listEvaluator.shutdown();
+
         // TODO: test Save results filts
         logger.info("Testing results...");
-        ResultWriter writer = new ResultWriter(trainingFile + "_tra.txt", testFile, fullPopulation, problem, true);
+        ResultWriter writer = new ResultWriter(trainingFile + "_tra.txt", testFile, testData, fullPopulation, problem, true);
         writer.writeTrainingMeasures();
         
         logger.info("Finished Execution.");
@@ -164,62 +275,19 @@ public class Main implements Callable<Integer> {
     
     
     /**
-     * It removes the repeated patterns in a set of patterns
+     * It removes the repeated patterns in a set of patterns.
+     *
+     * Two patterns are repeated if they have the same participating variables
+     * with the same values. The first occurrence of each pattern is kept. The
+     * patterns are hashed by their antecedent, so the set is processed in a
+     * single pass. All the patterns must belong to the same class.
      * 
      * @param patterns the set of patterns
      * @param problem  the problem definition
      * @return 
      */
     private List<BinarySolution> removeRepeatedPatterns(List<BinarySolution> patterns, BinaryProblem problem) {
-        BitSet marks = new BitSet(patterns.size());
-        List<BinarySolution> result = new ArrayList<>();
-        
-        for(int i = 0; i < patterns.size(); i++){
-            if(!marks.get(i)){  // pattern i is not marked for removal
-                for(int j = i + 1; j < patterns.size(); j++){
-                    if(!marks.get(j)){
-                        // check if all variables are equal
-                        BinarySolution Pi = patterns.get(i);
-                        BinarySolution Pj = patterns.get(j);
-                        if(equals(Pi, Pj, problem)){
-                            marks.set(j);
-                        }
-                    }
-                }
-            }
-        }
-        
-        
-        for(int i = 0; i < patterns.size(); i++){
-            if(!marks.get(i)) result.add(patterns.get(i));
-        }
-        
-        return result;
-    }
-    
-    
-    
-    
-    /**
-     * It checks whether two patterns are equals. 
-     * 
-     * Two patterns are equals if their participating rules are equal.
-     * 
-     * @param P1
-     * @param P2
-     * @param problem
-     * @return 
-     */
-    private boolean equals(BinarySolution P1, BinarySolution P2, BinaryProblem problem) {
-         for(int k = 0; k < problem.getNumberOfVariables(); k++){
-              if(  (P1.getVariableValue(k).cardinality() > 0 && P1.getVariableValue(k).cardinality() < problem.getNumberOfBits(k)) &&   // Both variables participates in the rule
-                   (P2.getVariableValue(k).cardinality() > 0 && P2.getVariableValue(k).cardinality() < problem.getNumberOfBits(k))
-                 ){
-                  if(!P1.getVariableValue(k).equals(P2.getVariableValue(k))) return false;
-              }
-                  
-         }
-         return true;
+        return RulePlan.removeRepeated(patterns);
     }
     
     
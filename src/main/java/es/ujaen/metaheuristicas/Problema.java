@@ -17,23 +17,33 @@
 package es.ujaen.metaheuristicas;
 
 import es.ujaen.metaheuristicas.attributes.Clase;
+import es.ujaen.metaheuristicas.dataset.ColumnStatistics;
+import es.ujaen.metaheuristicas.dataset.ColumnarDataset;
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
+import es.ujaen.metaheuristicas.dataset.DatasetCache;
+import es.ujaen.metaheuristicas.dataset.DatasetReader;
+import es.ujaen.metaheuristicas.evaluator.BatchEvaluationProblem;
 import es.ujaen.metaheuristicas.evaluator.Evaluator;
-import es.ujaen.metaheuristicas.exceptions.InvalidFuzzySetException;
+import es.ujaen.metaheuristicas.fuzzy.FuzzyPartition;
 import es.ujaen.metaheuristicas.fuzzy.FuzzySet;
-import es.ujaen.metaheuristicas.fuzzy.TriangularFuzzySet;
+import es.ujaen.metaheuristicas.fuzzy.TriangularPartition;
 import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure;
+import es.ujaen.metaheuristicas.solution.PackedBinarySolution;
 import org.uma.jmetal.problem.BinaryProblem;
 import org.uma.jmetal.solution.BinarySolution;
-import org.uma.jmetal.solution.impl.DefaultBinarySolution;
 import org.uma.jmetal.util.binarySet.BinarySet;
 import org.uma.jmetal.util.pseudorandom.JMetalRandom;
 
 import weka.core.Instances;
 import weka.core.converters.ConverterUtils.DataSource;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,22 +57,52 @@ import java.util.logging.Logger;
  *
  * @author agvico
  */
-public class Problema implements BinaryProblem {
+public class Problema implements BinaryProblem, BatchEvaluationProblem<BinarySolution> {
 
     public static int RANDOM_INITIALISATION = 0;
     public static int ORIENTED_INITIALISATION = 1;
 
     /**
-     * The dataset. It contains all the information about the instances
+     * The header of the dataset. It contains the information about the
+     * attributes. The values of the instances are stored in
+     * {@link #columnarDataset}.
      */
     private Instances dataset;
 
+    /**
+     * The column-major snapshot of the dataset employed in the evaluation
+     */
+    private ColumnarDataset columnarDataset;
+
+    /**
+     * The statistics of each attribute of {@link #columnarDataset}
+     */
+    private ColumnStatistics statistics;
+
+    /**
+     * Whether the datasets are read with the WEKA API instead of
+     * {@link DatasetReader}
+     */
+    private boolean wekaReader = false;
+
+    /**
+     * The cache of preprocessed datasets, or {@code null} if datasets are
+     * always read from their files
+     */
+    private DatasetCache datasetCache;
+
     /**
      * The attribute class of the problem for the extraction of rules.
      */
     private Clase<BinarySolution> clase;
     private int clas;
 
+    /**
+     * Whether the consequent of the patterns is chosen during the evaluation
+     * among all the classes, instead of using the fixed class {@link #clas}
+     */
+    private boolean allClasses = false;
+
     /**
      * The number of objectives to be used in a MOEA algorithm. By default we
      * use only 2 objectives
@@ -83,12 +123,30 @@ public class Problema implements BinaryProblem {
     private int initialisationMethod;
 
     /**
-     * The fuzzy sets that define the linguistic labels for each numeric
+     * The partitions that define the linguistic labels for each numeric
      * variable.
      *
-     * If a variable is non-numeric, its row must be {@code null}
+     * If a variable is non-numeric, its partition must be {@code null}
      */
-    private List<List<FuzzySet>> fuzzySets;
+    private List<FuzzyPartition> partitions;
+
+    /**
+     * The coverage of each linguistic label and nominal value over the
+     * dataset. It must be rebuilt each time the fuzzy sets change.
+     */
+    private CoverageIndex coverageIndex;
+
+    /**
+     * Whether the coverage indexes have a row per distinct signature of the
+     * instances instead of a row per instance
+     */
+    private boolean deduplicate = false;
+
+    /**
+     * Whether the numeric attributes with few distinct values are
+     * dictionary-encoded
+     */
+    private boolean dictionaryEncoding = false;
 
     /**
      * The evaluator used for measuring the objectives of the individuals
@@ -106,48 +164,150 @@ public class Problema implements BinaryProblem {
     private int length;
 
     /**
-     * It reads an ARFF or CSV file using the WEKA API.
+     * A dataset read from a file
+     */
+    private static final class LoadedDataset {
+
+        private final Instances header;
+        private final ColumnarDataset data;
+        private final ColumnStatistics statistics;
+
+        LoadedDataset(Instances header, ColumnarDataset data, ColumnStatistics statistics) {
+            this.header = header;
+            this.data = data;
+            this.statistics = statistics;
+        }
+    }
+
+    /**
+     * It reads an ARFF or CSV file as the training data of the problem, and it
+     * calculates the fuzzy sets of its numeric variables.
      *
+     * The file is read with {@link DatasetReader}, unless the weka reader is
+     * enabled or the file uses features not supported by it. Then, the file is
+     * read using the WEKA API. If there is a {@link DatasetCache}, the dataset
+     * is taken from it when the content of the file is already stored, and it
+     * is stored otherwise.
      *
      * @param path The path of the dataset
      */
     public void readDataset(String path) {
 
         // First, read the dataset and select the class
-        DataSource source;
         rand = JMetalRandom.getInstance();
         clase = new Clase<>();
 
         try {
-            source = new DataSource(path);
-            dataset = source.getDataSet();
-
-            // Con esto se le fija como clase el ultimo atributo si no estuviera especificado
-            if (dataset.classIndex() == -1) {
-                dataset.setClassIndex(dataset.numAttributes() - 1);
-            }
+            LoadedDataset loaded = load(path);
+            setDataset(loaded.header, loaded.data, loaded.statistics);
 
             // Set the number of linguistic labels and calculates its defintions
             setNumberOfLabels(numLabels);
 
-            // calculate the length of the chromosomes
-            length = 0;
-            for (int index = 0; index < dataset.numAttributes(); index++) {
-                if (index != dataset.classIndex()) {
-                    if (dataset.attribute(index).isNumeric()) {
-                        length += numLabels;
-                    } else if (dataset.attribute(index).isNominal()) {
-                        length += dataset.attribute(index).numValues();
-                    }
-                }
-            }
-
         } catch (Exception e) {
             e.printStackTrace();
         }
 
     }
 
+    /**
+     * It reads an ARFF or CSV file for evaluating the patterns of this problem,
+     * e.g., the test data, without modifying the problem.
+     *
+     * The file is read as in {@link #readDataset(String)} and it must have the
+     * same attributes as the training data. The values of the nominal
+     * attributes are indexed as in the training data, and the coverage index
+     * is built with the current fuzzy sets, so the patterns are evaluated
+     * with the same labels they were learnt with. It can be called from any
+     * thread while the fuzzy sets are not modified.
+     *
+     * @param path The path of the dataset
+     * @return The coverage index of the data, to be used in the evaluator
+     * @throws Exception if the file cannot be read or it does not match the
+     * training data
+     */
+    public CoverageIndex readEvaluationDataset(String path) throws Exception {
+        LoadedDataset loaded = load(path);
+        ColumnarDataset data = loaded.data.conform(loaded.header, dataset);
+        if (dictionaryEncoding) {
+            data = data.encodeNumericColumns();
+        }
+        return newCoverageIndex(data);
+    }
+
+    /**
+     * It reads a dataset with {@link #readEvaluationDataset(String)} in
+     * another thread.
+     *
+     * @param path The path of the dataset
+     * @return The future coverage index of the data
+     */
+    public CompletableFuture<CoverageIndex> readEvaluationDatasetAsync(String path) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readEvaluationDataset(path);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        });
+    }
+
+    /**
+     * It reads a file from the dataset cache, the native reader or weka.
+     *
+     * @param path
+     * @return
+     * @throws Exception
+     */
+    private LoadedDataset load(String path) throws Exception {
+        String key = null;
+        if (datasetCache != null) {
+            // The reader is part of the key, so -W never reads an entry parsed by the native reader or vice versa
+            key = DatasetCache.key(path, wekaReader);
+            DatasetCache.Entry entry = datasetCache.load(key);
+            if (entry != null) {
+                return new LoadedDataset(entry.getHeader(), entry.getData(), entry.getStatistics());
+            }
+        }
+
+        DatasetReader reader = null;
+        if (!wekaReader) {
+            try {
+                reader = DatasetReader.read(path);
+            } catch (IOException ex) {
+                Logger.getLogger(Problema.class.getName()).log(Level.INFO, "Reading {0} with weka: {1}", new Object[]{path, ex.getMessage()});
+            }
+        }
+
+        LoadedDataset loaded;
+        if (reader != null) {
+            loaded = new LoadedDataset(reader.getHeader(), reader.getData(), new ColumnStatistics(reader.getData()));
+        } else {
+            DataSource source = new DataSource(path);
+            Instances data = source.getDataSet();
+
+            // Con esto se le fija como clase el ultimo atributo si no estuviera especificado
+            if (data.classIndex() == -1) {
+                data.setClassIndex(data.numAttributes() - 1);
+            }
+
+            // Build the columnar snapshot and keep only the header of the weka dataset
+            ColumnarDataset columnar = ColumnarDataset.fromInstances(data);
+            loaded = new LoadedDataset(new Instances(data, 0), columnar, new ColumnStatistics(columnar));
+        }
+
+        if (datasetCache != null) {
+            try {
+                if (!datasetCache.store(key, loaded.header, loaded.data, loaded.statistics)) {
+                    Logger.getLogger(Problema.class.getName()).log(Level.INFO, "{0} cannot be stored in the dataset cache", path);
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(Problema.class.getName()).log(Level.WARNING, "Cannot store " + path + " in the dataset cache", ex);
+            }
+        }
+        return loaded;
+    }
+
     @Override
     public int getNumberOfVariables() {
         return dataset.numAttributes() - 1;
@@ -168,14 +328,42 @@ public class Problema implements BinaryProblem {
         return dataset.relationName();
     }
 
+    /**
+     * It evaluates a solution against the dataset.
+     *
+     * The evaluation only reads the shared state of the problem (the dataset,
+     * the coverage index and the objectives), so it is safe to evaluate
+     * different solutions concurrently, e.g., with a
+     * {@link org.uma.jmetal.util.evaluator.impl.MultithreadedSolutionListEvaluator}.
+     * The problem must not be reconfigured while an evaluation is in progress.
+     *
+     * @param solution
+     */
     @Override
     public void evaluate(BinarySolution solution) {
         // Evaluates the chromosome against the dataset using the fuzzy sets
         // definitions (if necessary). It also sets the objective values.
-        evaluator.doEvaluation(solution, fuzzySets, dataset);
+        if (allClasses) {
+            evaluator.doEvaluationAllClasses(solution, coverageIndex);
+        } else {
+            evaluator.doEvaluation(solution, coverageIndex);
+        }
 
     }
 
+    /**
+     * It evaluates a list of solutions against the dataset. The contingency
+     * tables of all the solutions are gathered in a single batch for
+     * calculating the objectives.
+     *
+     * @param solutions
+     * @param pool
+     */
+    @Override
+    public void evaluate(List<BinarySolution> solutions, ForkJoinPool pool) {
+        evaluator.doEvaluation(solutions, coverageIndex, allClasses, pool);
+    }
+
     /**
      * It sets the number of objectives in this multi-objective problem.
      *
@@ -197,24 +385,41 @@ public class Problema implements BinaryProblem {
 
     /**
      * It sets the number of linguistic labels employed in this problem. In
-     * addition, it recalculates the Fuzzy sets definitions with the new value
-     * employed.
+     * addition, if a dataset is already loaded, it recalculates the Fuzzy sets
+     * definitions with the new value employed. The range of each variable is
+     * taken from the statistics of the dataset, computed once when it is set.
      *
      * @param numLabels
      */
     public void setNumberOfLabels(int numLabels) {
         this.numLabels = numLabels;
+        if (columnarDataset == null) {
+            return;
+        }
         // Next, set the fuzzy linguistic labels for numeric variables
-        fuzzySets = new ArrayList<>();
+        partitions = new ArrayList<>();
         for (int i = 0; i < dataset.numAttributes(); i++) {
             if (i != dataset.classIndex() && dataset.attribute(i).isNumeric()) {
-                double max = getMax(i);
-                double min = getMin(i);
-                fuzzySets.add(generateLinguistcLabels(min, max));
+                double max = statistics.getMax(i);
+                double min = statistics.getMin(i);
+                partitions.add(generateLinguistcLabels(min, max));
             } else {
-                fuzzySets.add(null);
+                partitions.add(null);
+            }
+        }
+
+        // calculate the length of the chromosomes
+        length = 0;
+        for (int index = 0; index < dataset.numAttributes(); index++) {
+            if (index != dataset.classIndex()) {
+                if (dataset.attribute(index).isNumeric()) {
+                    length += numLabels;
+                } else if (dataset.attribute(index).isNominal()) {
+                    length += dataset.attribute(index).numValues();
+                }
             }
         }
+        coverageIndex = newCoverageIndex(columnarDataset);
     }
 
     public int getInitialisationMethod() {
@@ -225,12 +430,83 @@ public class Problema implements BinaryProblem {
         this.initialisationMethod = initialisationMethod;
     }
 
+    /**
+     * It returns a copy of the fuzzy sets of each numeric variable
+     * ({@code null} for non-numeric variables). Modifications must be stored
+     * back with {@link #setFuzzySets(List)}.
+     *
+     * @return
+     */
     public List<List<FuzzySet>> getFuzzySets() {
-        return fuzzySets;
+        return FuzzyPartition.toFuzzySets(partitions);
     }
 
     public void setFuzzySets(List<List<FuzzySet>> fuzzySets) {
-        this.fuzzySets = fuzzySets;
+        setPartitions(FuzzyPartition.ofVariables(fuzzySets));
+    }
+
+    public List<FuzzyPartition> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<FuzzyPartition> partitions) {
+        this.partitions = partitions;
+        coverageIndex = newCoverageIndex(columnarDataset);
+    }
+
+    /**
+     * It builds the coverage index of the current partitions over the data,
+     * deduplicated if enabled.
+     */
+    private CoverageIndex newCoverageIndex(ColumnarDataset data) {
+        return deduplicate
+                ? CoverageIndex.deduplicated(data, partitions)
+                : new CoverageIndex(data, partitions);
+    }
+
+    public boolean isDictionaryEncoding() {
+        return dictionaryEncoding;
+    }
+
+    /**
+     * It sets whether the numeric attributes with few distinct values of the
+     * datasets are dictionary-encoded (see
+     * {@link ColumnarDataset#encodeNumericColumns()}), so their belonging
+     * degrees are computed once per distinct value. It applies to the datasets
+     * set afterwards.
+     *
+     * @param dictionaryEncoding
+     */
+    public void setDictionaryEncoding(boolean dictionaryEncoding) {
+        this.dictionaryEncoding = dictionaryEncoding;
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicate;
+    }
+
+    /**
+     * It sets whether the coverage indexes have a row per distinct signature
+     * of the instances (see {@link CoverageIndex#deduplicated}), instead of a
+     * row per instance. The results are the same. The index of the current
+     * fuzzy sets is rebuilt if needed.
+     *
+     * @param deduplicate
+     */
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+        if (partitions != null && coverageIndex != null && coverageIndex.isDeduplicated() != deduplicate) {
+            coverageIndex = newCoverageIndex(columnarDataset);
+        }
+    }
+
+    /**
+     * Gets the coverage index of the current fuzzy sets over the dataset
+     *
+     * @return
+     */
+    public CoverageIndex getCoverageIndex() {
+        return coverageIndex;
     }
 
     public void addObjective(QualityMeasure measure){
@@ -258,7 +534,8 @@ public class Problema implements BinaryProblem {
     }
 
     /**
-     * Get the dataset of this problem
+     * Get the header of the dataset of this problem. It does not contain any
+     * instance, the data is in {@link #getColumnarDataset()}
      *
      * @return
      */
@@ -267,12 +544,77 @@ public class Problema implements BinaryProblem {
     }
 
     /**
-     * Set the dataset of this problem
+     * Set the dataset of this problem. It builds the columnar snapshot of the
+     * data and keeps only the header of the weka dataset.
      *
-     * @param dataset A weka-based dataset
+     * @param dataset A weka-based dataset with the class index already set
      */
     public void setDataset(Instances dataset) {
-        this.dataset = dataset;
+        setDataset(new Instances(dataset, 0), ColumnarDataset.fromInstances(dataset));
+    }
+
+    /**
+     * Set the dataset of this problem from its header and its columnar data.
+     *
+     * @param header The header of the dataset, with the class index already
+     * set. Its instances are not used.
+     * @param data The data of the dataset
+     */
+    public void setDataset(Instances header, ColumnarDataset data) {
+        setDataset(header, data, new ColumnStatistics(data));
+    }
+
+    private void setDataset(Instances header, ColumnarDataset data, ColumnStatistics statistics) {
+        this.columnarDataset = dictionaryEncoding ? data.encodeNumericColumns() : data;
+        this.statistics = statistics;
+        this.dataset = new Instances(header, 0);
+        this.coverageIndex = null;  // The fuzzy sets must be recalculated for the new data
+    }
+
+    public boolean isWekaReader() {
+        return wekaReader;
+    }
+
+    /**
+     * It sets whether the datasets are always read with the WEKA API instead
+     * of {@link DatasetReader}.
+     *
+     * @param wekaReader
+     */
+    public void setWekaReader(boolean wekaReader) {
+        this.wekaReader = wekaReader;
+    }
+
+    public DatasetCache getDatasetCache() {
+        return datasetCache;
+    }
+
+    /**
+     * It sets the cache of preprocessed datasets employed by
+     * {@link #readDataset(String)}.
+     *
+     * @param datasetCache The cache, or {@code null} to always read the files
+     */
+    public void setDatasetCache(DatasetCache datasetCache) {
+        this.datasetCache = datasetCache;
+    }
+
+    /**
+     * Get the column-major snapshot of the dataset of this problem
+     *
+     * @return
+     */
+    public ColumnarDataset getColumnarDataset() {
+        return columnarDataset;
+    }
+
+    /**
+     * Gets the statistics of each attribute of the dataset
+     *
+     * @return
+     */
+    public ColumnStatistics getStatistics() {
+        return statistics;
     }
 
     /**
@@ -291,10 +633,10 @@ public class Problema implements BinaryProblem {
     @Override
     public BinarySolution createSolution() {
         // Create a random individual
-        DefaultBinarySolution sol = null;
+        PackedBinarySolution sol = null;
         if (initialisationMethod == RANDOM_INITIALISATION) {
             // By default, individuals are initialised at random
-            sol = new DefaultBinarySolution(this);
+            sol = RandomInitialisation(rand);
         } else if (initialisationMethod == ORIENTED_INITIALISATION) {
             // Oriented initialisation
             sol = OrientedInitialisation(rand, 0.25);
@@ -315,6 +657,21 @@ public class Problema implements BinaryProblem {
         this.clas = clas;
     }
 
+    /**
+     * It sets whether the consequent of each pattern is chosen during the
+     * evaluation as the best class for its antecedent. This allows to search
+     * patterns for all the classes in a single run.
+     *
+     * @param allClasses
+     */
+    public void setAllClasses(boolean allClasses) {
+        this.allClasses = allClasses;
+    }
+
+    public boolean isAllClasses() {
+        return allClasses;
+    }
+
     /**
      * Get the number of bits of a given variable. The number of bits represents
      * the number of possible values for this variable.
@@ -343,38 +700,6 @@ public class Problema implements BinaryProblem {
         return length;
     }
 
-    /**
-     * Get the maximum value of a numeric variable
-     *
-     * @param var
-     */
-    private double getMax(int var) {
-        double max = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < dataset.numInstances(); i++) {
-            if (dataset.get(i).value(var) > max) {
-                max = dataset.get(i).value(var);
-            }
-        }
-
-        return max;
-    }
-
-    /**
-     * Get the minimum value of a numeric variable
-     *
-     * @param var
-     */
-    private double getMin(int var) {
-        double min = Double.POSITIVE_INFINITY;
-        for (int i = 0; i < dataset.numInstances(); i++) {
-            if (dataset.get(i).value(var) < min) {
-                min = dataset.get(i).value(var);
-            }
-        }
-
-        return min;
-    }
-
     /**
      * It generates the triangular liguistic labels for covering from min to max
      * using the specified number of linguistic labels
@@ -382,47 +707,40 @@ public class Problema implements BinaryProblem {
      * @param min
      * @return
      */
-    private List<FuzzySet> generateLinguistcLabels(double min, double max) {
+    private FuzzyPartition generateLinguistcLabels(double min, double max) {
         double marca = (max - min) / ((double) (numLabels - 1));
-        double cutPoint = min + marca / 2;
-        ArrayList<FuzzySet> sets = new ArrayList<>();
+        double[] x0 = new double[numLabels];
+        double[] x1 = new double[numLabels];
+        double[] x2 = new double[numLabels];
+        double[] y = new double[numLabels];
 
         for (int label = 0; label < numLabels; label++) {
-            ArrayList<Double> definitions = new ArrayList<>();
             double value = min + marca * (label - 1);
 
             // Creation of x0 point
             if (label == 0) {
-                definitions.add(-1 * Double.MAX_VALUE);
+                x0[label] = -1 * Double.MAX_VALUE;
             } else {
-                definitions.add(Round(value, max));
+                x0[label] = Round(value, max);
             }
 
             // Creation of x1 point
             value = min + marca * label;
-            definitions.add(Round(value, max));
+            x1[label] = Round(value, max);
 
             // Creation of x2 point
             value = min + marca * (label + 1);
             if (label == numLabels - 1) {
-                definitions.add(Double.MAX_VALUE);
+                x2[label] = Double.MAX_VALUE;
             } else {
-                definitions.add(Round(value, max));
-            }
-
-            // Create de triangular fuzzy set
-            TriangularFuzzySet set = null;
-            try {
-                set = new TriangularFuzzySet(definitions, 1.0);
-            } catch (InvalidFuzzySetException ex) {
-                Logger.getLogger(Problema.class.getName()).log(Level.SEVERE, null, ex);
+                x2[label] = Round(value, max);
             }
-            sets.add(set);
 
-            cutPoint += marca;
+            y[label] = 1.0;
         }
 
-        return sets;
+        // Create de triangular fuzzy sets
+        return new TriangularPartition(x0, x1, x2, y);
     }
 
     /**
@@ -444,6 +762,27 @@ public class Problema implements BinaryProblem {
         return (val);
     }
 
+    /**
+     * It generates a random individual where each bit is set with probability
+     * 0.5.
+     *
+     * @param rand
+     * @return
+     */
+    public PackedBinarySolution RandomInitialisation(JMetalRandom rand) {
+        PackedBinarySolution sol = new PackedBinarySolution(this);
+        for (int var = 0; var < sol.getNumberOfVariables(); var++) {
+            BinarySet value = new BinarySet(sol.getNumberOfBits(var));
+            for (int i = 0; i < sol.getNumberOfBits(var); i++) {
+                if (rand.nextDouble() < 0.5) {
+                    value.set(i);
+                }
+            }
+            sol.setVariableValue(var, value);
+        }
+        return sol;
+    }
+
     /**
      * It generates a random indivual initialising a percentage of its variables
      * at random.
@@ -451,8 +790,8 @@ public class Problema implements BinaryProblem {
      * @param rand
      * @return
      */
-    public DefaultBinarySolution OrientedInitialisation(JMetalRandom rand, double pctVariables) {
-        DefaultBinarySolution sol = new DefaultBinarySolution(this);
+    public PackedBinarySolution OrientedInitialisation(JMetalRandom rand, double pctVariables) {
+        PackedBinarySolution sol = new PackedBinarySolution(this);
         long maxVariablesToInitialise = Math.round(pctVariables * getNumberOfVariables());
         int varsToInit = rand.nextInt(0, (int) maxVariablesToInitialise) + 1;
 
@@ -471,11 +810,11 @@ public class Problema implements BinaryProblem {
                         value.clear(i);
                     }
                 }
-                // check if the generated variable is empty and fix it if necessary
+                // check if the generated variable is empty and fix it if necessary (nextInt includes the upper bound)
                 if (value.cardinality() == 0) {
-                    value.set(rand.nextInt(0, sol.getNumberOfBits(var)));
+                    value.set(rand.nextInt(0, sol.getNumberOfBits(var) - 1));
                 } else if (value.cardinality() == sol.getNumberOfBits(var)) {
-                    value.clear(rand.nextInt(0, sol.getNumberOfBits(var)));
+                    value.clear(rand.nextInt(0, sol.getNumberOfBits(var) - 1));
                 }
                 sol.setVariableValue(var, value);
                 varInitialised++;
@@ -483,13 +822,7 @@ public class Problema implements BinaryProblem {
             }
         }
 
-        // clear the non-initialised variables
-        for (int i = 0; i < sol.getNumberOfVariables(); i++) {
-            if (!initialised.get(i)) {
-                sol.getVariableValue(i).clear();
-            }
-        }
-
+        // The non-initialised variables are empty, as the solution is created with all its bits set to zero
         return sol;
     }
     
@@ -17,19 +17,24 @@
 package es.ujaen.metaheuristicas;
 
 import es.ujaen.metaheuristicas.utils.Files;
-import es.ujaen.metaheuristicas.utils.ClassLoader;
 import es.ujaen.metaheuristicas.attributes.Clase;
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
 import java.io.File;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure;
 import es.ujaen.metaheuristicas.attributes.Clase;
 import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTable;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTableBatch;
+import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasureKernel;
+import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasureRegistry;
 import org.uma.jmetal.solution.BinarySolution;
 
 /**
@@ -74,6 +79,12 @@ public final class ResultWriter {
     
     private String test;
 
+    /**
+     * The coverage index of the test data, built with the fuzzy sets of the
+     * problem
+     */
+    private final CompletableFuture<CoverageIndex> testData;
+
     /**
      * Default constructor, it sets the path where the files are stored.
      *
@@ -87,9 +98,26 @@ public final class ResultWriter {
      * @param overwrite If previous files exists, overwrite it?
      */
     public ResultWriter(String tra, String tst, List<BinarySolution> population, Problema problem, boolean overwrite) {
+        this(tra, tst, problem.readEvaluationDatasetAsync(tst), population, problem, overwrite);
+    }
+
+    /**
+     * It sets the path where the files are stored and the test data, which
+     * may be still being read.
+     *
+     * @param tra The path for training QMs files
+     * @param tst The path of the test file, employed for the test QMs file
+     * @param testData The test data, read with
+     * {@link Problema#readEvaluationDatasetAsync(String)}
+     * @param population The population of individuals
+     * @param problem The problem the population was obtained with
+     * @param overwrite If previous files exists, overwrite it?
+     */
+    public ResultWriter(String tra, String tst, CompletableFuture<CoverageIndex> testData, List<BinarySolution> population, Problema problem, boolean overwrite) {
 
         this.pathTra = tra;
-            this.test = tst;
+        this.test = tst;
+        this.testData = testData;
         this.population = population;
         this.problem = problem;
         symbols = new DecimalFormatSymbols(Locale.GERMANY);
@@ -162,42 +190,54 @@ public final class ResultWriter {
         });
         content = "";
         
+        // Evaluate the population against test data, with the fuzzy sets and the classes obtained in training
+        CoverageIndex testIndex;
         try {
-            problem.readDataset(test);
-            population.forEach(i -> problem.evaluate(i));   // Evaluate the population against test data
-            
-            //Guardar el fichero de todas las medidas de calidad. Guardar todas las clases disponibles
-            ArrayList<QualityMeasure> classes = ClassLoader.getClasses();
-
-            // Cabecera
-            content += "Rule\tID\tConsequent\tTP\tFP\tTN\tFN";
-            for (QualityMeasure q : classes) {
-                content += "\t" + q.getShortName();
+            testIndex = testData.join();
+        } catch (CompletionException ex) {
+            Logger.getLogger(ResultWriter.class.getName()).log(Level.SEVERE, "Cannot read the test data " + test, ex.getCause());
+            return;
+        }
+        population.forEach(i -> problem.getEvaluator().doEvaluation(i, testIndex));
+        
+        //Guardar el fichero de todas las medidas de calidad. Guardar todas las clases disponibles
+        List<QualityMeasure> classes = QualityMeasureRegistry.createAll();
+
+        // Cabecera
+        content += "Rule\tID\tConsequent\tTP\tFP\tTN\tFN";
+        for (QualityMeasure q : classes) {
+            content += "\t" + q.getShortName();
+        }
+        content += "\n";
+
+        // Calculate all the measures of every pattern in a single pass
+        ContingencyTableBatch batch = new ContingencyTableBatch(population.size());
+        population.forEach(i -> {
+            ContingencyTable tabla = (ContingencyTable) i.getAttribute(ContingencyTable.class);
+            if (tabla != null) {
+                batch.add(tabla);
             }
-            content += "\n";
+        });
+        double[][] values = new QualityMeasureKernel(classes).compute(batch);
 
-            // datos
-            for (int i = 0; i < population.size(); i++) {
-                content += i + "\t" + population.get(i).hashCode() + "\t" + population.get(i).getAttribute(Clase.class) + "\t";
-                ContingencyTable tabla = (ContingencyTable) population.get(i).getAttribute(ContingencyTable.class);
-                if (tabla != null) {
-                    content += tabla.getTp() + "\t";
-                    content += tabla.getFp() + "\t";
-                    content += tabla.getTn() + "\t";
-                    content += tabla.getFn() + "\t";
-                    for (QualityMeasure q : classes) {
-
-                        q.calculateValue(tabla);
-                        content += sixDecimals.format(q.getValue()) + "\t";
-                    }
-                    content += "\n";
+        // datos
+        int t = 0;
+        for (int i = 0; i < population.size(); i++) {
+            content += i + "\t" + population.get(i).hashCode() + "\t" + population.get(i).getAttribute(Clase.class) + "\t";
+            if (population.get(i).getAttribute(ContingencyTable.class) != null) {
+                content += batch.getTp(t) + "\t";
+                content += batch.getFp(t) + "\t";
+                content += batch.getTn(t) + "\t";
+                content += batch.getFn(t) + "\t";
+                for (int j = 0; j < values.length; j++) {
+                    content += sixDecimals.format(values[j][t]) + "\t";
                 }
+                content += "\n";
+                t++;
             }
-            Files.addToFile(test + "_testMeasures.txt", content);
-
-        } catch (InstantiationException | IllegalAccessException | ClassNotFoundException ex) {
-            Logger.getLogger(ResultWriter.class.getName()).log(Level.SEVERE, null, ex);
         }
+        Files.addToFile(test + "_testMeasures.txt", content);
+
     }
 
 }
@@ -0,0 +1,31 @@
+/* 
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.attributes;
+
+
+import org.uma.jmetal.solution.Solution;
+import org.uma.jmetal.util.solutionattribute.impl.GenericSolutionAttribute;
+
+/**
+ * It implements the validation status attribute of an individual: a bit mask
+ * with the objectives whose value is out of their valid range. It is only
+ * stored in the individuals whose objectives are not valid.
+ */
+public class ValidationStatus<S extends Solution<?>> extends GenericSolutionAttribute<S, Integer> {
+
+    private static final long serialVersionUID = 1L;
+}
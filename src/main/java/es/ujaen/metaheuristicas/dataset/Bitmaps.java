@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.dataset;
+
+/**
+ * Word-level operations over bitmaps of instances stored as {@code long[]}.
+ *
+ * Bit {@code i} of a bitmap is stored in the word {@code i >>> 6}. All the
+ * bitmaps of the same dataset have the same number of words.
+ *
+ * @author agvico
+ */
+public final class Bitmaps {
+
+    private Bitmaps() {
+    }
+
+    /**
+     * It sets bit {@code i} of the bitmap.
+     *
+     * @param bitmap
+     * @param i
+     */
+    public static void set(long[] bitmap, int i) {
+        bitmap[i >>> 6] |= 1L << i;
+    }
+
+    /**
+     * It returns a bitmap with the first {@code n} bits set.
+     *
+     * @param n
+     * @return
+     */
+    public static long[] full(int n) {
+        long[] bitmap = new long[ColumnarDataset.words(n)];
+        for (int w = 0; w < bitmap.length; w++) {
+            bitmap[w] = -1L;
+        }
+        if ((n & 63) != 0) {
+            bitmap[bitmap.length - 1] = (1L << n) - 1;
+        }
+        return bitmap;
+    }
+
+    /**
+     * {@code dst |= src}
+     *
+     * @param dst
+     * @param src
+     */
+    public static void or(long[] dst, long[] src) {
+        for (int w = 0; w < dst.length; w++) {
+            dst[w] |= src[w];
+        }
+    }
+
+    /**
+     * {@code dst &= src}
+     *
+     * @param dst
+     * @param src
+     */
+    public static void and(long[] dst, long[] src) {
+        for (int w = 0; w < dst.length; w++) {
+            dst[w] &= src[w];
+        }
+    }
+
+    /**
+     * The number of bits set in the bitmap.
+     *
+     * @param bitmap
+     * @return
+     */
+    public static int cardinality(long[] bitmap) {
+        int count = 0;
+        for (int w = 0; w < bitmap.length; w++) {
+            count += Long.bitCount(bitmap[w]);
+        }
+        return count;
+    }
+
+    /**
+     * The number of bits set in both bitmaps, without materialising the
+     * intersection.
+     *
+     * @param a
+     * @param b
+     * @return
+     */
+    public static int andCardinality(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+}
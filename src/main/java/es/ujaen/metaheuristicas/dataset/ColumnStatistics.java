@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.dataset;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of every attribute of a dataset: minimum, maximum, number of
+ * known values and number of missing values.
+ *
+ * They are computed in a single pass over each column, and every statistic of
+ * a column is updated in the same pass. Optionally, a sketch of each numeric
+ * column (a sorted sample of equally spaced instances) is kept for estimating
+ * its quantiles.
+ *
+ * The statistics are immutable once computed.
+ *
+ * @author agvico
+ */
+public final class ColumnStatistics {
+
+    /**
+     * The minimum and maximum known value of each numeric attribute ({@code NaN}
+     * for non-numeric attributes or columns without known values)
+     */
+    private final double[] min, max;
+
+    /**
+     * The number of known values of each attribute
+     */
+    private final int[] count;
+
+    /**
+     * The number of missing values of each attribute
+     */
+    private final int[] missing;
+
+    /**
+     * The sorted sample of each numeric attribute, or {@code null}
+     */
+    private final double[][] sketches;
+
+    /**
+     * It computes the statistics of the dataset, without quantile sketches.
+     *
+     * @param dataset
+     */
+    public ColumnStatistics(ColumnarDataset dataset) {
+        this(dataset, 0);
+    }
+
+    /**
+     * It computes the statistics of the dataset.
+     *
+     * @param dataset
+     * @param sketchSize The maximum number of values of the sketch of each
+     * numeric attribute (0 = no sketches)
+     */
+    public ColumnStatistics(ColumnarDataset dataset, int sketchSize) {
+        int d = dataset.getNumAttributes();
+        int n = dataset.getNumInstances();
+        min = new double[d];
+        max = new double[d];
+        count = new int[d];
+        missing = new int[d];
+        sketches = new double[d][];
+        Arrays.fill(min, Double.NaN);
+        Arrays.fill(max, Double.NaN);
+
+        // Instances of the sample: every stride-th one
+        int stride = sketchSize > 0 ? Math.max(1, (n + sketchSize - 1) / sketchSize) : 0;
+
+        for (int var = 0; var < d; var++) {
+            long[] missingBits = dataset.getMissing(var);
+            if (dataset.isNumeric(var)) {
+                double[] column = dataset.getNumericColumn(var);
+                double lo = Double.POSITIVE_INFINITY;
+                double hi = Double.NEGATIVE_INFINITY;
+                int known = 0;
+                double[] sample = stride > 0 ? new double[(n + stride - 1) / stride] : null;
+                int sampled = 0;
+                for (int i = 0; i < n; i++) {
+                    double value = column[i];
+                    if (value == value) {
+                        if (value < lo) {
+                            lo = value;
+                        }
+                        if (value > hi) {
+                            hi = value;
+                        }
+                        known++;
+                        if (sample != null && i % stride == 0) {
+                            sample[sampled++] = value;
+                        }
+                    }
+                }
+                count[var] = known;
+                missing[var] = n - known;
+                if (known > 0) {
+                    min[var] = lo;
+                    max[var] = hi;
+                }
+                if (sample != null) {
+                    sketches[var] = Arrays.copyOf(sample, sampled);
+                    Arrays.sort(sketches[var]);
+                }
+            } else {
+                int unknown = 0;
+                for (long word : missingBits) {
+                    unknown += Long.bitCount(word);
+                }
+                missing[var] = unknown;
+                count[var] = n - unknown;
+            }
+        }
+    }
+
+    /**
+     * It creates the statistics from their values, e.g., when they are read
+     * from a {@link DatasetCache}. There are no quantile sketches.
+     */
+    ColumnStatistics(double[] min, double[] max, int[] count, int[] missing) {
+        this.min = min;
+        this.max = max;
+        this.count = count;
+        this.missing = missing;
+        this.sketches = new double[min.length][];
+    }
+
+    /**
+     * The number of attributes
+     *
+     * @return
+     */
+    public int getNumAttributes() {
+        return min.length;
+    }
+
+    /**
+     * The minimum known value of a numeric attribute
+     *
+     * @param var
+     * @return The minimum, or {@code NaN} if the attribute is not numeric or
+     * all its values are missing
+     */
+    public double getMin(int var) {
+        return min[var];
+    }
+
+    /**
+     * The maximum known value of a numeric attribute
+     *
+     * @param var
+     * @return The maximum, or {@code NaN} if the attribute is not numeric or
+     * all its values are missing
+     */
+    public double getMax(int var) {
+        return max[var];
+    }
+
+    /**
+     * The number of known values of an attribute
+     *
+     * @param var
+     * @return
+     */
+    public int getCount(int var) {
+        return count[var];
+    }
+
+    /**
+     * The number of missing values of an attribute
+     *
+     * @param var
+     * @return
+     */
+    public int getMissing(int var) {
+        return missing[var];
+    }
+
+    /**
+     * It returns whether the quantiles of an attribute can be estimated
+     *
+     * @param var
+     * @return
+     */
+    public boolean hasSketch(int var) {
+        return sketches[var] != null && sketches[var].length > 0;
+    }
+
+    /**
+     * It estimates a quantile of a numeric attribute from its sketch, by
+     * means of the nearest rank of the sample.
+     *
+     * @param var
+     * @param q The quantile, from 0 to 1
+     * @return
+     * @throws IllegalStateException if the attribute has no sketch
+     */
+    public double getQuantile(int var, double q) {
+        if (!hasSketch(var)) {
+            throw new IllegalStateException("There is no quantile sketch of attribute " + var);
+        }
+        double[] sketch = sketches[var];
+        int rank = (int) Math.ceil(Math.max(0.0, Math.min(1.0, q)) * sketch.length) - 1;
+        return sketch[Math.max(0, rank)];
+    }
+}
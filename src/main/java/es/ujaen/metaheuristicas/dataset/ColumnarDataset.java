@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.dataset;
+
+import java.util.Arrays;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Immutable, column-major snapshot of a dataset.
+ *
+ * Numeric attributes are stored as {@code double[]} columns and nominal
+ * attributes as {@code int[]} columns with the index of the nominal value.
+ * Missing values are kept in a bitmap per attribute and the class of each
+ * instance is stored in a separate {@code int[]}. The snapshot is built once
+ * when the dataset is read, so the evaluation of the individuals does not
+ * need to go through the weka {@link Instances} object graph.
+ *
+ * Numeric attributes with few distinct values can be dictionary-encoded (see
+ * {@link #encodeNumericColumns()}): then, the column stores the index of each
+ * value in a sorted dictionary of the distinct values, as a byte or a short,
+ * so the values that depend only on the value (e.g., the belonging degrees)
+ * can be computed once per distinct value.
+ *
+ * The arrays returned by the getters are the internal ones. They must be
+ * treated as read-only.
+ *
+ * @author agvico
+ */
+public final class ColumnarDataset {
+
+    /**
+     * The number of instances of the dataset
+     */
+    private final int numInstances;
+
+    /**
+     * The number of attributes, including the class
+     */
+    private final int numAttributes;
+
+    /**
+     * The index of the class attribute
+     */
+    private final int classIndex;
+
+    /**
+     * The number of values of the class attribute
+     */
+    private final int numClasses;
+
+    /**
+     * Whether each attribute is nominal or not
+     */
+    private final boolean[] nominal;
+
+    /**
+     * Whether each attribute is numeric or not
+     */
+    private final boolean[] numeric;
+
+    /**
+     * The number of values of each nominal attribute (0 otherwise)
+     */
+    private final int[] numValues;
+
+    /**
+     * The values of the numeric attributes. The row of non-numeric attributes
+     * is {@code null}. Missing values are stored as {@code NaN}.
+     */
+    private final double[][] numericColumns;
+
+    /**
+     * The sorted distinct values of each dictionary-encoded numeric attribute,
+     * where missing values are NaN. The row of the rest of attributes is
+     * {@code null}.
+     */
+    private final double[][] dictionaries;
+
+    /**
+     * The index in the dictionary of the value of each instance, for
+     * dictionaries of up to 256 values. The row of the rest of attributes is
+     * {@code null}.
+     */
+    private final byte[][] byteCodes;
+
+    /**
+     * The index in the dictionary of the value of each instance, for
+     * dictionaries of up to {@link #MAX_DICTIONARY_SIZE} values. The row of the
+     * rest of attributes is {@code null}.
+     */
+    private final short[][] shortCodes;
+
+    /**
+     * The maximum number of distinct values of a dictionary-encoded attribute
+     */
+    public static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    /**
+     * The index of the value of the nominal attributes. The row of non-nominal
+     * attributes is {@code null}. Missing values are stored as -1.
+     */
+    private final int[][] nominalColumns;
+
+    /**
+     * The missing-value bitmap of each attribute. Bit {@code i} is set if the
+     * value of instance {@code i} is missing.
+     */
+    private final long[][] missing;
+
+    /**
+     * The class label of each instance
+     */
+    private final int[] classLabels;
+
+    ColumnarDataset(int numInstances, int numAttributes, int classIndex, int numClasses,
+            boolean[] nominal, boolean[] numeric, int[] numValues,
+            double[][] numericColumns, int[][] nominalColumns, long[][] missing, int[] classLabels) {
+        this(numInstances, numAttributes, classIndex, numClasses, nominal, numeric, numValues,
+                numericColumns, nominalColumns, missing, classLabels,
+                new double[numAttributes][], new byte[numAttributes][], new short[numAttributes][]);
+    }
+
+    private ColumnarDataset(int numInstances, int numAttributes, int classIndex, int numClasses,
+            boolean[] nominal, boolean[] numeric, int[] numValues,
+            double[][] numericColumns, int[][] nominalColumns, long[][] missing, int[] classLabels,
+            double[][] dictionaries, byte[][] byteCodes, short[][] shortCodes) {
+        this.dictionaries = dictionaries;
+        this.byteCodes = byteCodes;
+        this.shortCodes = shortCodes;
+        this.numInstances = numInstances;
+        this.numAttributes = numAttributes;
+        this.classIndex = classIndex;
+        this.numClasses = numClasses;
+        this.nominal = nominal;
+        this.numeric = numeric;
+        this.numValues = numValues;
+        this.numericColumns = numericColumns;
+        this.nominalColumns = nominalColumns;
+        this.missing = missing;
+        this.classLabels = classLabels;
+    }
+
+    /**
+     * It builds the columnar snapshot of a weka dataset. The class index of
+     * the dataset must be already set.
+     *
+     * @param data The weka dataset
+     * @return The snapshot of the data
+     */
+    public static ColumnarDataset fromInstances(Instances data) {
+        int n = data.numInstances();
+        int d = data.numAttributes();
+        boolean[] nominal = new boolean[d];
+        boolean[] numeric = new boolean[d];
+        int[] numValues = new int[d];
+        double[][] numericColumns = new double[d][];
+        int[][] nominalColumns = new int[d][];
+        long[][] missing = new long[d][words(n)];
+        int[] classLabels = new int[n];
+
+        for (int var = 0; var < d; var++) {
+            Attribute att = data.attribute(var);
+            nominal[var] = att.isNominal();
+            numeric[var] = att.isNumeric();
+            if (nominal[var]) {
+                numValues[var] = att.numValues();
+                nominalColumns[var] = new int[n];
+            } else if (numeric[var]) {
+                numericColumns[var] = new double[n];
+            }
+        }
+
+        // Fill the columns row by row, so each weka instance is visited only once
+        for (int i = 0; i < n; i++) {
+            Instance inst = data.instance(i);
+            for (int var = 0; var < d; var++) {
+                boolean isMissing = inst.isMissing(var);
+                if (isMissing) {
+                    missing[var][i >>> 6] |= 1L << i;
+                }
+                if (nominal[var]) {
+                    nominalColumns[var][i] = isMissing ? -1 : (int) inst.value(var);
+                } else if (numeric[var]) {
+                    numericColumns[var][i] = inst.value(var);
+                }
+            }
+            classLabels[i] = (int) inst.classValue();
+        }
+
+        return new ColumnarDataset(n, d, data.classIndex(), data.numClasses(), nominal, numeric, numValues,
+                numericColumns, nominalColumns, missing, classLabels);
+    }
+
+    /**
+     * It returns this dataset with the values of the nominal attributes
+     * indexed as in another header with the same attributes, e.g., the test
+     * data with the indexes of the training data. Values that are not in the
+     * other header are considered missing.
+     *
+     * @param header The header of this dataset
+     * @param target The header whose indexes are employed
+     * @return This dataset if the indexes are already the same, or a new one
+     * @throws IllegalArgumentException if the attributes of both headers are
+     * not the same or a class value is not in {@code target}
+     */
+    public ColumnarDataset conform(Instances header, Instances target) {
+        if (header.numAttributes() != numAttributes || target.numAttributes() != numAttributes
+                || target.classIndex() != classIndex) {
+            throw new IllegalArgumentException("The datasets have different attributes or class");
+        }
+
+        int[] values = numValues.clone();
+        int[][] columns = nominalColumns.clone();
+        long[][] missingValues = missing.clone();
+        int[] labels = classLabels;
+        boolean changed = false;
+        for (int var = 0; var < numAttributes; var++) {
+            Attribute from = header.attribute(var);
+            Attribute to = target.attribute(var);
+            if (!from.name().equals(to.name()) || from.isNominal() != to.isNominal() || from.isNumeric() != to.isNumeric()) {
+                throw new IllegalArgumentException("Attribute " + from.name() + " does not match attribute " + to.name());
+            }
+            if (!nominal[var]) {
+                continue;
+            }
+
+            int[] map = new int[from.numValues()];
+            boolean same = from.numValues() == to.numValues();
+            for (int value = 0; value < map.length; value++) {
+                map[value] = to.indexOfValue(from.value(value));
+                same &= map[value] == value;
+            }
+            if (same) {
+                continue;
+            }
+
+            changed = true;
+            values[var] = to.numValues();
+            columns[var] = new int[numInstances];
+            missingValues[var] = missing[var].clone();
+            for (int i = 0; i < numInstances; i++) {
+                int value = nominalColumns[var][i];
+                columns[var][i] = value < 0 ? -1 : map[value];
+                if (value >= 0 && map[value] < 0) {
+                    missingValues[var][i >>> 6] |= 1L << i;
+                }
+            }
+            if (var == classIndex) {
+                labels = new int[numInstances];
+                for (int i = 0; i < numInstances; i++) {
+                    if (map[classLabels[i]] < 0) {
+                        throw new IllegalArgumentException("Unknown class value: " + from.value(classLabels[i]));
+                    }
+                    labels[i] = map[classLabels[i]];
+                }
+            }
+        }
+
+        return !changed ? this : new ColumnarDataset(numInstances, numAttributes, classIndex, target.numClasses(),
+                nominal, numeric, values, numericColumns, columns, missingValues, labels,
+                dictionaries, byteCodes, shortCodes);
+    }
+
+    /**
+     * It returns this dataset with its numeric attributes dictionary-encoded
+     * when the dictionary and the codes take less memory than the values,
+     * i.e., when they have few distinct values.
+     *
+     * @return This dataset if no attribute is encoded, or a new one
+     */
+    public ColumnarDataset encodeNumericColumns() {
+        double[][] columns = numericColumns.clone();
+        double[][] dictionary = dictionaries.clone();
+        byte[][] bytes = byteCodes.clone();
+        short[][] shorts = shortCodes.clone();
+        boolean changed = false;
+        for (int var = 0; var < numAttributes; var++) {
+            double[] column = numericColumns[var];
+            if (column == null) {
+                continue;
+            }
+
+            // The sort and the search order values as Double.compare, so NaN is a single value at the end
+            double[] sorted = column.clone();
+            Arrays.sort(sorted);
+            int size = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (size == 0 || Double.compare(sorted[i], sorted[size - 1]) != 0) {
+                    sorted[size++] = sorted[i];
+                }
+            }
+            int codeBytes = size <= 256 ? 1 : size <= MAX_DICTIONARY_SIZE ? 2 : 0;
+            if (codeBytes == 0 || 8L * size + (long) codeBytes * numInstances >= 8L * numInstances) {
+                continue;
+            }
+
+            changed = true;
+            dictionary[var] = Arrays.copyOf(sorted, size);
+            columns[var] = null;
+            if (codeBytes == 1) {
+                bytes[var] = new byte[numInstances];
+                for (int i = 0; i < numInstances; i++) {
+                    bytes[var][i] = (byte) Arrays.binarySearch(dictionary[var], column[i]);
+                }
+            } else {
+                shorts[var] = new short[numInstances];
+                for (int i = 0; i < numInstances; i++) {
+                    shorts[var][i] = (short) Arrays.binarySearch(dictionary[var], column[i]);
+                }
+            }
+        }
+
+        return !changed ? this : new ColumnarDataset(numInstances, numAttributes, classIndex, numClasses,
+                nominal, numeric, numValues, columns, nominalColumns, missing, classLabels,
+                dictionary, bytes, shorts);
+    }
+
+    /**
+     * The number of 64-bit words needed for storing a bitmap of {@code n}
+     * bits.
+     *
+     * @param n
+     * @return
+     */
+    public static int words(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    public int getNumInstances() {
+        return numInstances;
+    }
+
+    public int getNumAttributes() {
+        return numAttributes;
+    }
+
+    public int getClassIndex() {
+        return classIndex;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    public boolean isNominal(int var) {
+        return nominal[var];
+    }
+
+    public boolean isNumeric(int var) {
+        return numeric[var];
+    }
+
+    /**
+     * The number of values of a nominal attribute.
+     *
+     * @param var
+     * @return
+     */
+    public int getNumValues(int var) {
+        return numValues[var];
+    }
+
+    /**
+     * The column of a numeric attribute, or {@code null} if it is not numeric.
+     * If the attribute is dictionary-encoded, a new array with the decoded
+     * values is returned.
+     *
+     * @param var
+     * @return
+     */
+    public double[] getNumericColumn(int var) {
+        if (dictionaries[var] == null) {
+            return numericColumns[var];
+        }
+        double[] column = new double[numInstances];
+        for (int i = 0; i < numInstances; i++) {
+            column[i] = dictionaries[var][getCode(var, i)];
+        }
+        return column;
+    }
+
+    /**
+     * It returns the value of a numeric attribute in the instance {@code i}.
+     *
+     * @param var
+     * @param i
+     * @return
+     */
+    public double getNumericValue(int var, int i) {
+        return dictionaries[var] == null ? numericColumns[var][i] : dictionaries[var][getCode(var, i)];
+    }
+
+    /**
+     * It returns whether the numeric attribute is dictionary-encoded.
+     *
+     * @param var
+     * @return
+     */
+    public boolean isEncoded(int var) {
+        return dictionaries[var] != null;
+    }
+
+    /**
+     * The sorted distinct values of a dictionary-encoded attribute, where a
+     * missing value is NaN, or {@code null} if it is not encoded.
+     *
+     * @param var
+     * @return
+     */
+    public double[] getDictionary(int var) {
+        return dictionaries[var];
+    }
+
+    /**
+     * The index in the dictionary of the value of a dictionary-encoded
+     * attribute in the instance {@code i}.
+     *
+     * @param var
+     * @param i
+     * @return
+     */
+    public int getCode(int var, int i) {
+        return byteCodes[var] != null ? byteCodes[var][i] & 0xFF : shortCodes[var][i] & 0xFFFF;
+    }
+
+    /**
+     * The column of a nominal attribute, or {@code null} if it is not
+     * nominal.
+     *
+     * @param var
+     * @return
+     */
+    public int[] getNominalColumn(int var) {
+        return nominalColumns[var];
+    }
+
+    /**
+     * The missing-value bitmap of the given attribute.
+     *
+     * @param var
+     * @return
+     */
+    public long[] getMissing(int var) {
+        return missing[var];
+    }
+
+    /**
+     * It returns whether the value of the attribute {@code var} is missing in
+     * the instance {@code i}.
+     *
+     * @param var
+     * @param i
+     * @return
+     */
+    public boolean isMissing(int var, int i) {
+        return (missing[var][i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * The class labels of the instances.
+     *
+     * @return
+     */
+    public int[] getClassLabels() {
+        return classLabels;
+    }
+}
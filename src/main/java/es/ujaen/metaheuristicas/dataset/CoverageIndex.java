@@ -0,0 +1,441 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.dataset;
+
+import es.ujaen.metaheuristicas.fuzzy.FuzzyPartition;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coverage index of a dataset for a given set of fuzzy linguistic labels.
+ *
+ * An instance is covered by a rule when its fuzzy belonging degree is greater
+ * than zero, so the coverage of each linguistic label (or nominal value) can be
+ * computed once and stored as a bitmap. Then, the coverage of a DNF rule is
+ * obtained by OR-ing the selected labels of each variable and AND-ing the
+ * participating variables, and the contingency table by counting the bits in
+ * common with the bitmap of each class.
+ *
+ * Instances with a missing value in a variable are covered by every label of
+ * that variable. The index is immutable once built.
+ *
+ * The bitmaps have a bit per row of the index. Usually, each row is an
+ * instance, but the index can also be built with {@link #deduplicated}: then,
+ * each row is a distinct signature (the nominal values and active labels of
+ * an instance), which covers every instance with that signature, and it has
+ * the number of instances of each class as weights. The weights are stored as
+ * bit planes, so the covered instances of a class are counted with
+ * {@link #countCovered(long[], int)} as a weighted sum of bit counts.
+ *
+ * @author agvico
+ */
+public final class CoverageIndex {
+
+    /**
+     * The dataset the index is built from
+     */
+    private final ColumnarDataset dataset;
+
+    /**
+     * The number of rows of the bitmaps
+     */
+    private final int numRows;
+
+    /**
+     * The coverage of each label: {@code labels[var][label]}. The row of the
+     * class or non-supported attributes is {@code null}.
+     */
+    private final long[][][] labels;
+
+    /**
+     * The rows with a missing value in each variable
+     */
+    private final long[][] missing;
+
+    /**
+     * The rows with instances of each class
+     */
+    private final long[][] classes;
+
+    /**
+     * The bit planes of the weights of each class: bit {@code r} of
+     * {@code weights[clas][b]} is bit {@code b} of the number of instances of
+     * the class in row {@code r}. It is {@code null} if every row is an
+     * instance.
+     */
+    private final long[][][] weights;
+
+    /**
+     * The number of instances of each class
+     */
+    private final int[] classCounts;
+
+    /**
+     * It builds the coverage index of the dataset, with a row per instance.
+     *
+     * @param dataset The columnar dataset
+     * @param partitions The linguistic labels of each numeric variable
+     * ({@code null} for non-numeric variables)
+     */
+    public CoverageIndex(ColumnarDataset dataset, List<FuzzyPartition> partitions) {
+        this(dataset, partitions, null, null);
+    }
+
+    /**
+     * It builds the index from the instances that represent each row.
+     *
+     * @param dataset The columnar dataset
+     * @param partitions The linguistic labels of each numeric variable
+     * @param representatives The instance of each row, or {@code null} if
+     * every instance is a row
+     * @param rowWeights The number of instances of each class in each row:
+     * {@code rowWeights[clas][row]}. Only used with representatives.
+     */
+    private CoverageIndex(ColumnarDataset dataset, List<FuzzyPartition> partitions, int[] representatives, int[][] rowWeights) {
+        this.dataset = dataset;
+        numRows = representatives == null ? dataset.getNumInstances() : representatives.length;
+        int words = ColumnarDataset.words(numRows);
+
+        labels = new long[dataset.getNumAttributes()][][];
+        missing = new long[dataset.getNumAttributes()][];
+        for (int var = 0; var < dataset.getNumAttributes(); var++) {
+            if (representatives == null) {
+                missing[var] = dataset.getMissing(var);
+            } else {
+                missing[var] = new long[words];
+                for (int r = 0; r < numRows; r++) {
+                    if (dataset.isMissing(var, representatives[r])) {
+                        Bitmaps.set(missing[var], r);
+                    }
+                }
+            }
+            if (var == dataset.getClassIndex()) {
+                continue;
+            }
+            if (dataset.isNominal(var)) {
+                int[] column = dataset.getNominalColumn(var);
+                labels[var] = new long[dataset.getNumValues(var)][];
+                for (int value = 0; value < labels[var].length; value++) {
+                    labels[var][value] = missing[var].clone();
+                }
+                for (int r = 0; r < numRows; r++) {
+                    int value = column[representatives == null ? r : representatives[r]];
+                    if (value >= 0) {
+                        Bitmaps.set(labels[var][value], r);
+                    }
+                }
+            } else if (dataset.isNumeric(var)) {
+                double[] column = dataset.isEncoded(var) ? null : dataset.getNumericColumn(var);
+                FuzzyPartition partition = partitions.get(var);
+                labels[var] = new long[partition.size()][];
+                for (int label = 0; label < partition.size(); label++) {
+                    labels[var][label] = missing[var].clone();
+                }
+                // Only the labels with a belonging degree greater than zero are visited for each value
+                if (dataset.isEncoded(var)) {
+                    int[][] activeByCode = activeLabels(partition, dataset.getDictionary(var));
+                    for (int r = 0; r < numRows; r++) {
+                        for (int label : activeByCode[dataset.getCode(var, representatives == null ? r : representatives[r])]) {
+                            Bitmaps.set(labels[var][label], r);
+                        }
+                    }
+                } else {
+                    int[] active = new int[partition.size()];
+                    double[] degrees = new double[partition.size()];
+                    for (int r = 0; r < numRows; r++) {
+                        int count = partition.getActiveLabels(column[representatives == null ? r : representatives[r]], active, degrees);
+                        for (int j = 0; j < count; j++) {
+                            Bitmaps.set(labels[var][active[j]], r);
+                        }
+                    }
+                }
+            }
+        }
+
+        classes = new long[dataset.getNumClasses()][words];
+        classCounts = new int[dataset.getNumClasses()];
+        if (representatives == null) {
+            int[] classLabels = dataset.getClassLabels();
+            for (int i = 0; i < numRows; i++) {
+                Bitmaps.set(classes[classLabels[i]], i);
+                classCounts[classLabels[i]]++;
+            }
+            weights = null;
+        } else {
+            weights = new long[dataset.getNumClasses()][][];
+            for (int clas = 0; clas < classes.length; clas++) {
+                int max = 0;
+                for (int r = 0; r < numRows; r++) {
+                    int weight = rowWeights[clas][r];
+                    if (weight > 0) {
+                        Bitmaps.set(classes[clas], r);
+                        classCounts[clas] += weight;
+                        max = Math.max(max, weight);
+                    }
+                }
+                weights[clas] = new long[32 - Integer.numberOfLeadingZeros(max)][words];
+                for (int r = 0; r < numRows; r++) {
+                    for (int weight = rowWeights[clas][r]; weight != 0; weight &= weight - 1) {
+                        Bitmaps.set(weights[clas][Integer.numberOfTrailingZeros(weight)], r);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * It builds the coverage index of the dataset with a row per distinct
+     * signature of the instances.
+     *
+     * The signature of an instance is the value of each nominal variable and
+     * the set of active labels (those with a belonging degree greater than
+     * zero) of each numeric variable, or whether the value is missing. As the
+     * coverage of an instance only depends on its signature, the contingency
+     * tables are the same as with a row per instance, but the cost of the
+     * evaluation depends on the number of distinct signatures.
+     *
+     * @param dataset The columnar dataset
+     * @param partitions The linguistic labels of each numeric variable
+     * ({@code null} for non-numeric variables)
+     * @return The index
+     */
+    public static CoverageIndex deduplicated(ColumnarDataset dataset, List<FuzzyPartition> partitions) {
+        int n = dataset.getNumInstances();
+        int d = dataset.getNumAttributes();
+
+        // The signature has a code per nominal variable, and the number of active labels followed by them per numeric variable
+        int length = 0;
+        int[][] active = new int[d][];
+        int[][][] activeByCode = new int[d][][];
+        double[] degrees = new double[0];
+        for (int var = 0; var < d; var++) {
+            if (var == dataset.getClassIndex()) {
+                continue;
+            }
+            if (dataset.isNominal(var)) {
+                length++;
+            } else if (dataset.isNumeric(var)) {
+                int size = partitions.get(var).size();
+                active[var] = new int[size];
+                if (dataset.isEncoded(var)) {
+                    activeByCode[var] = activeLabels(partitions.get(var), dataset.getDictionary(var));
+                }
+                degrees = size > degrees.length ? new double[size] : degrees;
+                length += 1 + size;
+            }
+        }
+
+        Map<Signature, Integer> rows = new HashMap<>();
+        int[] rowOf = new int[n];
+        int[] representatives = new int[Math.min(n, 16)];
+        int[] signature = new int[length];
+        for (int i = 0; i < n; i++) {
+            int pos = 0;
+            for (int var = 0; var < d; var++) {
+                if (var == dataset.getClassIndex()) {
+                    continue;
+                }
+                if (dataset.isNominal(var)) {
+                    signature[pos++] = dataset.getNominalColumn(var)[i];
+                } else if (dataset.isNumeric(var)) {
+                    if (dataset.isMissing(var, i)) {
+                        signature[pos++] = -1;
+                    } else if (activeByCode[var] != null) {
+                        int[] labels = activeByCode[var][dataset.getCode(var, i)];
+                        signature[pos++] = labels.length;
+                        System.arraycopy(labels, 0, signature, pos, labels.length);
+                        pos += labels.length;
+                    } else {
+                        int count = partitions.get(var).getActiveLabels(dataset.getNumericColumn(var)[i], active[var], degrees);
+                        signature[pos++] = count;
+                        System.arraycopy(active[var], 0, signature, pos, count);
+                        pos += count;
+                    }
+                }
+            }
+
+            Signature key = new Signature(Arrays.copyOf(signature, pos));
+            Integer row = rows.putIfAbsent(key, rows.size());
+            if (row == null) {
+                row = rows.size() - 1;
+                if (row == representatives.length) {
+                    representatives = Arrays.copyOf(representatives, 2 * row);
+                }
+                representatives[row] = i;
+            }
+            rowOf[i] = row;
+        }
+
+        int[][] rowWeights = new int[dataset.getNumClasses()][rows.size()];
+        int[] classLabels = dataset.getClassLabels();
+        for (int i = 0; i < n; i++) {
+            rowWeights[classLabels[i]][rowOf[i]]++;
+        }
+        return new CoverageIndex(dataset, partitions, Arrays.copyOf(representatives, rows.size()), rowWeights);
+    }
+
+    /**
+     * It calculates the active labels of each value of a dictionary.
+     *
+     * @param partition The linguistic labels
+     * @param dictionary The values
+     * @return The labels with a belonging degree greater than zero for each
+     * value
+     */
+    private static int[][] activeLabels(FuzzyPartition partition, double[] dictionary) {
+        int[] active = new int[partition.size()];
+        double[] degrees = new double[partition.size()];
+        int[][] activeByCode = new int[dictionary.length][];
+        for (int code = 0; code < dictionary.length; code++) {
+            int count = partition.getActiveLabels(dictionary[code], active, degrees);
+            activeByCode[code] = Arrays.copyOf(active, count);
+        }
+        return activeByCode;
+    }
+
+    /**
+     * The signature of an instance, as a key of a hash map
+     */
+    private static final class Signature {
+
+        private final int[] codes;
+        private final int hash;
+
+        Signature(int[] codes) {
+            this.codes = codes;
+            this.hash = Arrays.hashCode(codes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature && Arrays.equals(codes, ((Signature) o).codes);
+        }
+    }
+
+    public ColumnarDataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * It returns whether the variable has coverage information, i.e., it is a
+     * numeric or nominal variable different from the class.
+     *
+     * @param var
+     * @return
+     */
+    public boolean isIndexed(int var) {
+        return labels[var] != null;
+    }
+
+    /**
+     * The rows covered by the given linguistic label (or nominal value) of a
+     * variable. The returned bitmap must not be modified.
+     *
+     * @param var
+     * @param label
+     * @return
+     */
+    public long[] getLabelCoverage(int var, int label) {
+        return labels[var][label];
+    }
+
+    /**
+     * The rows with a missing value in the variable. The returned bitmap must
+     * not be modified.
+     *
+     * @param var
+     * @return
+     */
+    public long[] getMissing(int var) {
+        return missing[var];
+    }
+
+    /**
+     * The rows with instances of the given class. The returned bitmap must not
+     * be modified.
+     *
+     * @param clas
+     * @return
+     */
+    public long[] getClassCoverage(int clas) {
+        return classes[clas];
+    }
+
+    /**
+     * It counts the instances of a class in the given rows.
+     *
+     * @param covered The bitmap of the rows
+     * @param clas The class
+     * @return The number of instances of the class in the rows
+     */
+    public int countCovered(long[] covered, int clas) {
+        if (weights == null) {
+            return Bitmaps.andCardinality(covered, classes[clas]);
+        }
+        int count = 0;
+        for (int b = 0; b < weights[clas].length; b++) {
+            count += Bitmaps.andCardinality(covered, weights[clas][b]) << b;
+        }
+        return count;
+    }
+
+    /**
+     * The number of instances of the given class.
+     *
+     * @param clas
+     * @return
+     */
+    public int getClassCount(int clas) {
+        return classCounts[clas];
+    }
+
+    /**
+     * The number of instances of the dataset.
+     *
+     * @return
+     */
+    public int getNumInstances() {
+        return dataset.getNumInstances();
+    }
+
+    /**
+     * The number of rows of the bitmaps of the index: the number of instances,
+     * or the number of distinct signatures if the index is deduplicated.
+     *
+     * @return
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Whether each row of the index is a distinct signature with weights,
+     * instead of an instance
+     *
+     * @return
+     */
+    public boolean isDeduplicated() {
+        return weights != null;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/**
+ * Cache of preprocessed datasets in a binary format.
+ *
+ * Each dataset is stored in a file of the cache directory named after its
+ * key: the SHA-256 hash of the content of the original file, the reader the
+ * file is parsed with (native or weka) and the version of the format, see
+ * {@link #key(String, boolean)}. Hence, a modified file is never read from a
+ * stale entry, each reader gets its own entry, and the same data is shared
+ * by any path that points to it. The entry contains the header (relation, attributes, values
+ * of the nominal attributes and class), the columns, the missing-value
+ * bitmaps, the class labels and the {@link ColumnStatistics}, so the text is
+ * not parsed again.
+ *
+ * Entries are read by mapping the file in memory, but the mapping is only a
+ * fast read path: the columns, the missing-value bitmaps and the class labels
+ * are copied to the heap arrays of a {@link ColumnarDataset}, so each process
+ * holds its own copy of the data and the pages of the entry are not shared
+ * among processes beyond the page cache of the read. Entries are written to a
+ * temporary file that is then atomically renamed, so several processes can
+ * share the cache directory. Only datasets with numeric and nominal
+ * attributes are stored.
+ *
+ * @author agvico
+ */
+public final class DatasetCache {
+
+    /**
+     * The first bytes of an entry
+     */
+    private static final int MAGIC = 0x45504d43;
+
+    /**
+     * The version of the format of the entries
+     */
+    private static final int VERSION = 1;
+
+    private static final byte NUMERIC = 0, NOMINAL = 1;
+
+    /**
+     * The directory of the cache
+     */
+    private final Path directory;
+
+    /**
+     * A dataset read from the cache
+     */
+    public static final class Entry {
+
+        private final Instances header;
+        private final ColumnarDataset data;
+        private final ColumnStatistics statistics;
+
+        Entry(Instances header, ColumnarDataset data, ColumnStatistics statistics) {
+            this.header = header;
+            this.data = data;
+            this.statistics = statistics;
+        }
+
+        /**
+         * The header of the dataset, without instances and with the class
+         * index set
+         *
+         * @return
+         */
+        public Instances getHeader() {
+            return header;
+        }
+
+        public ColumnarDataset getData() {
+            return data;
+        }
+
+        public ColumnStatistics getStatistics() {
+            return statistics;
+        }
+    }
+
+    /**
+     * It creates a cache in the given directory, which is created if needed.
+     *
+     * @param directory
+     */
+    public DatasetCache(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * It returns the SHA-256 hash of the content of a file, in hexadecimal.
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static String hash(String path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * It returns the key of the entry of a file: the hash of its content (see
+     * {@link #hash(String)}), the reader and the version of the format.
+     *
+     * @param path The file
+     * @param wekaReader Whether the file is read with weka instead of the
+     * native reader
+     * @return
+     * @throws IOException
+     */
+    public static String key(String path, boolean wekaReader) throws IOException {
+        return hash(path) + (wekaReader ? "-weka" : "-native") + "-v" + VERSION;
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key + ".bin");
+    }
+
+    /**
+     * It reads the entry of a dataset into heap arrays. The mapping of the
+     * file is released when this method returns.
+     *
+     * @param key The key of the dataset, see {@link #key(String, boolean)}
+     * @return The dataset, or {@code null} if it is not in the cache or the
+     * entry is not valid
+     */
+    public Entry load(String key) {
+        Path file = entry(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            String relation = getString(buffer);
+            int n = buffer.getInt();
+            int d = buffer.getInt();
+            int classIndex = buffer.getInt();
+            int numClasses = buffer.getInt();
+
+            ArrayList<Attribute> attributes = new ArrayList<>(d);
+            boolean[] nominal = new boolean[d];
+            boolean[] numeric = new boolean[d];
+            int[] numValues = new int[d];
+            for (int var = 0; var < d; var++) {
+                byte type = buffer.get();
+                String name = getString(buffer);
+                if (type == NOMINAL) {
+                    nominal[var] = true;
+                    numValues[var] = buffer.getInt();
+                    List<String> values = new ArrayList<>(numValues[var]);
+                    for (int value = 0; value < numValues[var]; value++) {
+                        values.add(getString(buffer));
+                    }
+                    attributes.add(new Attribute(name, values));
+                } else {
+                    numeric[var] = true;
+                    attributes.add(new Attribute(name));
+                }
+            }
+            Instances header = new Instances(relation, attributes, 0);
+            header.setClassIndex(classIndex);
+
+            double[][] numericColumns = new double[d][];
+            int[][] nominalColumns = new int[d][];
+            long[][] missing = new long[d][ColumnarDataset.words(n)];
+            for (int var = 0; var < d; var++) {
+                if (numeric[var]) {
+                    numericColumns[var] = new double[n];
+                    buffer.asDoubleBuffer().get(numericColumns[var]);
+                    buffer.position(buffer.position() + 8 * n);
+                } else {
+                    nominalColumns[var] = new int[n];
+                    buffer.asIntBuffer().get(nominalColumns[var]);
+                    buffer.position(buffer.position() + 4 * n);
+                }
+                buffer.asLongBuffer().get(missing[var]);
+                buffer.position(buffer.position() + 8 * missing[var].length);
+            }
+            int[] classLabels = new int[n];
+            buffer.asIntBuffer().get(classLabels);
+            buffer.position(buffer.position() + 4 * n);
+
+            double[] min = new double[d];
+            double[] max = new double[d];
+            int[] count = new int[d];
+            int[] unknown = new int[d];
+            for (int var = 0; var < d; var++) {
+                min[var] = buffer.getDouble();
+                max[var] = buffer.getDouble();
+                count[var] = buffer.getInt();
+                unknown[var] = buffer.getInt();
+            }
+
+            ColumnarDataset data = new ColumnarDataset(n, d, classIndex, numClasses, nominal, numeric, numValues,
+                    numericColumns, nominalColumns, missing, classLabels);
+            return new Entry(header, data, new ColumnStatistics(min, max, count, unknown));
+        } catch (IOException | RuntimeException ex) {
+            // A truncated or corrupt entry is ignored, it will be written again
+            return null;
+        }
+    }
+
+    /**
+     * It stores the entry of a dataset, unless it has attributes that are
+     * neither numeric nor nominal.
+     *
+     * @param key The key of the dataset, see {@link #key(String, boolean)}
+     * @param header The header of the dataset
+     * @param data The data of the dataset
+     * @param statistics The statistics of the data
+     * @return Whether the entry was stored
+     * @throws IOException if the entry cannot be written
+     */
+    public boolean store(String key, Instances header, ColumnarDataset data, ColumnStatistics statistics) throws IOException {
+        int n = data.getNumInstances();
+        int d = data.getNumAttributes();
+        List<byte[]> strings = new ArrayList<>();
+        long size = 4 * 6 + string(header.relationName(), strings);
+        for (int var = 0; var < d; var++) {
+            Attribute att = header.attribute(var);
+            if (!data.isNumeric(var) && !data.isNominal(var)) {
+                return false;
+            }
+            size += 1 + string(att.name(), strings);
+            if (data.isNominal(var)) {
+                size += 4;
+                for (int value = 0; value < att.numValues(); value++) {
+                    size += string(att.value(value), strings);
+                }
+                size += 4L * n;
+            } else {
+                size += 8L * n;
+            }
+            size += 8L * ColumnarDataset.words(n);
+        }
+        size += 4L * n + (8 + 8 + 4 + 4) * (long) d;
+        if (size > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        int next = 0;
+        buffer.putInt(MAGIC).putInt(VERSION);
+        putString(buffer, strings.get(next++));
+        buffer.putInt(n).putInt(d).putInt(data.getClassIndex()).putInt(data.getNumClasses());
+        for (int var = 0; var < d; var++) {
+            buffer.put(data.isNominal(var) ? NOMINAL : NUMERIC);
+            putString(buffer, strings.get(next++));
+            if (data.isNominal(var)) {
+                int numValues = header.attribute(var).numValues();
+                buffer.putInt(numValues);
+                for (int value = 0; value < numValues; value++) {
+                    putString(buffer, strings.get(next++));
+                }
+            }
+        }
+        for (int var = 0; var < d; var++) {
+            if (data.isNumeric(var)) {
+                buffer.asDoubleBuffer().put(data.getNumericColumn(var));
+                buffer.position(buffer.position() + 8 * n);
+            } else {
+                buffer.asIntBuffer().put(data.getNominalColumn(var));
+                buffer.position(buffer.position() + 4 * n);
+            }
+            buffer.asLongBuffer().put(data.getMissing(var));
+            buffer.position(buffer.position() + 8 * data.getMissing(var).length);
+        }
+        buffer.asIntBuffer().put(data.getClassLabels());
+        buffer.position(buffer.position() + 4 * n);
+        for (int var = 0; var < d; var++) {
+            buffer.putDouble(statistics.getMin(var)).putDouble(statistics.getMax(var));
+            buffer.putInt(statistics.getCount(var)).putInt(statistics.getMissing(var));
+        }
+        buffer.flip();
+
+        // Write a temporary file and rename it, so other processes never read a partial entry
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, entry(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return true;
+    }
+
+    /**
+     * It encodes a string and returns the bytes it takes in the entry
+     */
+    private static int string(String value, List<byte[]> strings) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.add(bytes);
+        return 4 + bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.dataset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/**
+ * Reader of ARFF and CSV files into the columnar representation of the data.
+ *
+ * The file is read in a single buffered pass (two for CSV files, where the
+ * type of the columns is not declared) and the values are stored directly in
+ * primitive columns, without creating a weka instance per row. The header of
+ * the dataset (relation, attributes and class) is returned as an empty weka
+ * {@link Instances}, equal to the one weka produces for the same file. The
+ * class is the last attribute.
+ *
+ * Only the common subset of the formats is supported: numeric and nominal
+ * attributes, dense rows, values optionally enclosed in quotes without escape
+ * sequences, and a nominal class. Any other file raises an
+ * {@link IOException}, so it can be read with weka instead.
+ *
+ * @author agvico
+ */
+public final class DatasetReader {
+
+    /**
+     * The size of the buffer of the reader
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The header of the dataset, with the class index set
+     */
+    private final Instances header;
+
+    /**
+     * The data
+     */
+    private final ColumnarDataset data;
+
+    private DatasetReader(Instances header, ColumnarDataset data) {
+        this.header = header;
+        this.data = data;
+    }
+
+    /**
+     * It reads an ARFF or CSV file, depending on its extension.
+     *
+     * @param path The path of the file
+     * @return
+     * @throws IOException if the file cannot be read or it is not supported
+     */
+    public static DatasetReader read(String path) throws IOException {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".arff")) {
+            return readArff(Paths.get(path));
+        } else if (lower.endsWith(".csv")) {
+            return readCsv(Paths.get(path));
+        }
+        throw new IOException("Unsupported file format: " + path);
+    }
+
+    /**
+     * The header of the dataset, without instances and with the class index
+     * set
+     *
+     * @return
+     */
+    public Instances getHeader() {
+        return header;
+    }
+
+    /**
+     * The data of the dataset
+     *
+     * @return
+     */
+    public ColumnarDataset getData() {
+        return data;
+    }
+
+    private static BufferedReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * It reads an ARFF file
+     */
+    private static DatasetReader readArff(Path path) throws IOException {
+        try (BufferedReader in = open(path)) {
+            String relation = null;
+            List<String> names = new ArrayList<>();
+            List<List<String>> values = new ArrayList<>();
+
+            // Header
+            String line;
+            boolean data = false;
+            while (!data && (line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("%")) {
+                    continue;
+                }
+                String keyword = line.split("\\s", 2)[0].toLowerCase(Locale.ROOT);
+                String rest = line.substring(keyword.length()).trim();
+                switch (keyword) {
+                    case "@relation":
+                        relation = unquote(rest);
+                        break;
+                    case "@attribute":
+                        readAttribute(rest, names, values);
+                        break;
+                    case "@data":
+                        data = true;
+                        break;
+                    default:
+                        throw new IOException("Unsupported ARFF declaration: " + line);
+                }
+            }
+            if (!data || relation == null) {
+                throw new IOException("The ARFF header is incomplete");
+            }
+
+            Columns columns = new Columns(values);
+            String[] tokens = new String[names.size()];
+            while ((line = in.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("%")) {
+                    continue;
+                }
+                if (trimmed.startsWith("{")) {
+                    throw new IOException("Sparse ARFF data is not supported");
+                }
+                split(trimmed, tokens, true);
+                columns.add(tokens, false);
+            }
+            return columns.build(relation, names);
+        }
+    }
+
+    /**
+     * It reads the declaration of an attribute: its name and its type
+     */
+    private static void readAttribute(String declaration, List<String> names, List<List<String>> values) throws IOException {
+        int end;
+        if (declaration.startsWith("'") || declaration.startsWith("\"")) {
+            end = declaration.indexOf(declaration.charAt(0), 1) + 1;
+            if (end <= 0) {
+                throw new IOException("Unterminated attribute name: " + declaration);
+            }
+        } else {
+            end = 0;
+            while (end < declaration.length() && !Character.isWhitespace(declaration.charAt(end)) && declaration.charAt(end) != '{') {
+                end++;
+            }
+        }
+        String name = unquote(declaration.substring(0, end));
+        String type = declaration.substring(end).trim();
+
+        if (type.startsWith("{") && type.endsWith("}")) {
+            String list = type.substring(1, type.length() - 1).trim();
+            List<String> nominal = new ArrayList<>();
+            if (!list.isEmpty()) {
+                String[] tokens = new String[count(list)];
+                split(list, tokens, true);
+                nominal.addAll(Arrays.asList(tokens));
+            }
+            names.add(name);
+            values.add(nominal);
+        } else {
+            // As in weka, anything after the type (e.g., a range) is ignored
+            switch (type.split("\\s+", 2)[0].toLowerCase(Locale.ROOT)) {
+                case "numeric":
+                case "real":
+                case "integer":
+                    names.add(name);
+                    values.add(null);
+                    break;
+                default:
+                    throw new IOException("Unsupported type of attribute " + name + ": " + type);
+            }
+        }
+    }
+
+    /**
+     * It reads a CSV file with a header row. As in weka, a column is numeric
+     * if all its known values are numbers, and nominal otherwise, with its
+     * values in order of appearance. Empty values and "?" are missing.
+     */
+    private static DatasetReader readCsv(Path path) throws IOException {
+        List<String> names;
+        boolean[] numeric;
+
+        // First pass: the type of each column
+        try (BufferedReader in = open(path)) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("The CSV file is empty");
+            }
+            String[] header = new String[count(line)];
+            split(line, header, true);
+            names = Arrays.asList(header);
+            numeric = new boolean[header.length];
+            Arrays.fill(numeric, true);
+            String[] tokens = new String[header.length];
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                split(line, tokens, false);
+                for (int var = 0; var < tokens.length; var++) {
+                    if (numeric[var] && !isMissing(tokens[var], true)) {
+                        try {
+                            Double.parseDouble(tokens[var]);
+                        } catch (NumberFormatException ex) {
+                            numeric[var] = false;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Second pass: the values
+        try (BufferedReader in = open(path)) {
+            List<List<String>> values = new ArrayList<>();
+            for (int var = 0; var < names.size(); var++) {
+                values.add(numeric[var] ? null : new ArrayList<>());
+            }
+            Columns columns = new Columns(values);
+            String[] tokens = new String[names.size()];
+            String line = in.readLine();
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                split(line, tokens, false);
+                columns.add(tokens, true);
+            }
+            String relation = path.getFileName().toString();
+            return columns.build(relation.substring(0, relation.length() - ".csv".length()), names);
+        }
+    }
+
+    /**
+     * It returns whether a token is a missing value
+     */
+    private static boolean isMissing(String token, boolean csv) {
+        return token.equals("?") || (csv && token.isEmpty());
+    }
+
+    /**
+     * The number of values of a comma-separated line
+     */
+    private static int count(String line) throws IOException {
+        int count = 1;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ',') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * It splits a comma-separated line. Quoted values are unquoted. The rest
+     * of values are trimmed if {@code trim} is true.
+     *
+     * @throws IOException if the line does not have {@code tokens.length}
+     * values or it has an escape sequence
+     */
+    private static void split(String line, String[] tokens, boolean trim) throws IOException {
+        int n = line.length();
+        int i = 0;
+        int var = 0;
+        while (true) {
+            if (var == tokens.length) {
+                throw new IOException("Too many values in line: " + line);
+            }
+            int start = i;
+            while (i < n && (line.charAt(i) == ' ' || line.charAt(i) == '\t')) {
+                i++;
+            }
+            String token;
+            if (i < n && (line.charAt(i) == '\'' || line.charAt(i) == '"')) {
+                char quote = line.charAt(i);
+                int end = line.indexOf(quote, i + 1);
+                if (end < 0) {
+                    throw new IOException("Unterminated quote in line: " + line);
+                }
+                token = line.substring(i + 1, end);
+                if (token.indexOf('\\') >= 0) {
+                    throw new IOException("Escape sequences are not supported: " + line);
+                }
+                i = end + 1;
+                while (i < n && line.charAt(i) != ',') {
+                    if (!Character.isWhitespace(line.charAt(i))) {
+                        throw new IOException("Unexpected characters after a quoted value: " + line);
+                    }
+                    i++;
+                }
+            } else {
+                int end = line.indexOf(',', start);
+                if (end < 0) {
+                    end = n;
+                }
+                token = line.substring(start, end);
+                if (trim) {
+                    token = token.trim();
+                }
+                i = end;
+            }
+            tokens[var++] = token;
+            if (i >= n) {
+                break;
+            }
+            i++; // Skip the comma
+        }
+        if (var != tokens.length) {
+            throw new IOException("Expected " + tokens.length + " values in line: " + line);
+        }
+    }
+
+    /**
+     * It removes the quotes that enclose a name or value
+     */
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * The columns of the dataset while they are read
+     */
+    private static final class Columns {
+
+        /**
+         * The values of each nominal attribute ({@code null} for numeric
+         * attributes)
+         */
+        private final List<List<String>> values;
+
+        /**
+         * The index of each value of each nominal attribute
+         */
+        private final List<Map<String, Integer>> indexes = new ArrayList<>();
+
+        private final double[][] numericColumns;
+        private final int[][] nominalColumns;
+        private int size = 0;
+
+        Columns(List<List<String>> values) {
+            this.values = values;
+            int d = values.size();
+            numericColumns = new double[d][];
+            nominalColumns = new int[d][];
+            for (int var = 0; var < d; var++) {
+                Map<String, Integer> index = null;
+                if (values.get(var) == null) {
+                    numericColumns[var] = new double[1024];
+                } else {
+                    nominalColumns[var] = new int[1024];
+                    index = new HashMap<>();
+                    for (String value : values.get(var)) {
+                        index.putIfAbsent(value, index.size());
+                    }
+                }
+                indexes.add(index);
+            }
+        }
+
+        /**
+         * It adds a row. If {@code grow}, unknown nominal values are added
+         * to the attribute in order of appearance.
+         */
+        void add(String[] tokens, boolean grow) throws IOException {
+            if (size == capacity()) {
+                for (int var = 0; var < tokens.length; var++) {
+                    if (numericColumns[var] != null) {
+                        numericColumns[var] = Arrays.copyOf(numericColumns[var], 2 * size);
+                    } else {
+                        nominalColumns[var] = Arrays.copyOf(nominalColumns[var], 2 * size);
+                    }
+                }
+            }
+            for (int var = 0; var < tokens.length; var++) {
+                String token = tokens[var];
+                if (numericColumns[var] != null) {
+                    double value;
+                    if (isMissing(token, grow)) {
+                        value = Double.NaN;
+                    } else {
+                        try {
+                            value = Double.parseDouble(token.trim());
+                        } catch (NumberFormatException ex) {
+                            throw new IOException("Invalid numeric value: " + token);
+                        }
+                    }
+                    numericColumns[var][size] = value;
+                } else if (isMissing(token, grow)) {
+                    nominalColumns[var][size] = -1;
+                } else {
+                    Integer value = indexes.get(var).get(token);
+                    if (value == null) {
+                        if (!grow) {
+                            throw new IOException("Undeclared nominal value: " + token);
+                        }
+                        value = indexes.get(var).size();
+                        indexes.get(var).put(token, value);
+                        values.get(var).add(token);
+                    }
+                    nominalColumns[var][size] = value;
+                }
+            }
+            size++;
+        }
+
+        private int capacity() {
+            return numericColumns[0] != null ? numericColumns[0].length : nominalColumns[0].length;
+        }
+
+        /**
+         * It builds the header and the columnar dataset. The class is the
+         * last attribute.
+         */
+        DatasetReader build(String relation, List<String> names) throws IOException {
+            int d = names.size();
+            int classIndex = d - 1;
+            if (values.get(classIndex) == null) {
+                throw new IOException("The class attribute must be nominal");
+            }
+
+            ArrayList<Attribute> attributes = new ArrayList<>(d);
+            for (int var = 0; var < d; var++) {
+                attributes.add(values.get(var) == null ? new Attribute(names.get(var)) : new Attribute(names.get(var), values.get(var)));
+            }
+            Instances header = new Instances(relation, attributes, 0);
+            header.setClassIndex(classIndex);
+
+            boolean[] nominal = new boolean[d];
+            boolean[] numeric = new boolean[d];
+            int[] numValues = new int[d];
+            long[][] missing = new long[d][ColumnarDataset.words(size)];
+            for (int var = 0; var < d; var++) {
+                if (numericColumns[var] != null) {
+                    numeric[var] = true;
+                    numericColumns[var] = Arrays.copyOf(numericColumns[var], size);
+                    for (int i = 0; i < size; i++) {
+                        if (Double.isNaN(numericColumns[var][i])) {
+                            missing[var][i >>> 6] |= 1L << i;
+                        }
+                    }
+                } else {
+                    nominal[var] = true;
+                    numValues[var] = values.get(var).size();
+                    nominalColumns[var] = Arrays.copyOf(nominalColumns[var], size);
+                    for (int i = 0; i < size; i++) {
+                        if (nominalColumns[var][i] < 0) {
+                            missing[var][i >>> 6] |= 1L << i;
+                        }
+                    }
+                }
+            }
+
+            // As in weka, a missing class is read as the first class
+            int[] classLabels = new int[size];
+            for (int i = 0; i < size; i++) {
+                classLabels[i] = Math.max(0, nominalColumns[classIndex][i]);
+            }
+
+            ColumnarDataset data = new ColumnarDataset(size, d, classIndex, numValues[classIndex], nominal, numeric, numValues,
+                    numericColumns, nominalColumns, missing, classLabels);
+            return new DatasetReader(header, data);
+        }
+    }
+}
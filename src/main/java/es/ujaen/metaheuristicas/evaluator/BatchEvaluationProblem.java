@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.evaluator;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.uma.jmetal.problem.Problem;
+
+/**
+ * Problem that evaluates a list of solutions at once, e.g., for calculating
+ * the objectives of the whole list in a single batch.
+ *
+ * @author agvico
+ * @param <S> The type of the solutions
+ */
+public interface BatchEvaluationProblem<S> extends Problem<S> {
+
+    /**
+     * It evaluates the solutions. The results are the same as evaluating them
+     * one by one with {@link #evaluate(Object)}.
+     *
+     * @param solutions The solutions
+     * @param pool The pool where the part of the evaluation of each solution
+     * that does not depend on the rest can be run in parallel, or
+     * {@code null} for evaluating them in the calling thread
+     */
+    void evaluate(List<S> solutions, ForkJoinPool pool);
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.evaluator;
+
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the evaluation of rule antecedents.
+ *
+ * Many different chromosomes encode the same rule, as the variables with all
+ * their bits set to zero or one do not participate. The cache maps the
+ * canonical form of the antecedent ({@link RulePlan}) to the number of
+ * covered instances of each class, so the contingency table of any consequent
+ * can be derived without scanning the dataset again.
+ *
+ * The entries are only valid for the coverage index they were computed with.
+ * If the cache is queried with a different index, it is cleared. When the
+ * maximum number of entries is reached, the least recently used entry is
+ * evicted. All the methods are synchronized, so the cache can be shared by
+ * several evaluation threads.
+ *
+ * @author agvico
+ */
+public class EvaluationCache {
+
+    /**
+     * The maximum number of entries of the cache
+     */
+    private final int maxEntries;
+
+    /**
+     * The entries of the cache in access order
+     */
+    private final LinkedHashMap<RulePlan, int[]> entries;
+
+    /**
+     * The coverage index of the current entries
+     */
+    private CoverageIndex index;
+
+    /**
+     * The number of queries found in the cache
+     */
+    private long hits = 0;
+
+    /**
+     * The number of queries not found in the cache
+     */
+    private long misses = 0;
+
+    /**
+     * Default constructor
+     *
+     * @param maxEntries The maximum number of entries to keep
+     */
+    public EvaluationCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<RulePlan, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RulePlan, int[]> eldest) {
+                return size() > EvaluationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * It returns the number of covered instances of each class for the given
+     * antecedent, or {@code null} if it is not in the cache. The returned
+     * array must not be modified.
+     *
+     * @param index The coverage index of the evaluation
+     * @param antecedent The compiled rule
+     * @return
+     */
+    public synchronized int[] get(CoverageIndex index, RulePlan antecedent) {
+        if (index != this.index) {
+            entries.clear();
+            this.index = index;
+        }
+        int[] counts = entries.get(antecedent);
+        if (counts == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return counts;
+    }
+
+    /**
+     * It stores the number of covered instances of each class for the given
+     * antecedent. The array must not be modified afterwards.
+     *
+     * @param index The coverage index of the evaluation
+     * @param antecedent The compiled rule
+     * @param counts The number of covered instances of each class
+     */
+    public synchronized void put(CoverageIndex index, RulePlan antecedent, int[] counts) {
+        if (index == this.index) {
+            entries.put(antecedent, counts);
+        }
+    }
+
+    /**
+     * It removes all the entries and resets the counters
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long total = hits + misses;
+        return "Evaluation cache: " + hits + " hits, " + misses + " misses ("
+                + (total == 0 ? 0 : Math.round(100.0 * hits / total)) + "% hit ratio), "
+                + entries.size() + "/" + maxEntries + " entries";
+    }
+}
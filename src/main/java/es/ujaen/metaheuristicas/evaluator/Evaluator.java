@@ -16,16 +16,29 @@
  */
 package es.ujaen.metaheuristicas.evaluator;
 
+import es.ujaen.metaheuristicas.attributes.ValidationStatus;
+import es.ujaen.metaheuristicas.dataset.ColumnarDataset;
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
 import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
+import es.ujaen.metaheuristicas.fuzzy.FuzzyPartition;
 import es.ujaen.metaheuristicas.fuzzy.FuzzySet;
 import org.uma.jmetal.solution.Solution;
 import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTable;
 import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure;
-import weka.core.Instances;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Abstract evaluator of the individuals of the problem.
+ *
+ * The evaluation must not modify any state shared between individuals, so
+ * several individuals can be evaluated concurrently (e.g. with a multithreaded
+ * {@code SolutionListEvaluator}). The objectives must be added before the
+ * evaluation starts.
+ */
 public abstract class Evaluator {
 
     public ArrayList<QualityMeasure> getObjectives() {
@@ -42,38 +55,199 @@ public abstract class Evaluator {
      */
     private ArrayList<QualityMeasure>  objectives;
 
+    /**
+     * The cache of evaluated antecedents, or {@code null} if evaluations are not cached.
+     */
+    private EvaluationCache cache;
+
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    public void setCache(EvaluationCache cache) {
+        this.cache = cache;
+    }
+
 
     /**
-     * It calculates the quality measures given a contingency table
+     * How the evaluator reacts to objectives out of their valid range.
+     */
+    public enum ValidationMode {
+        /**
+         * The error is reported and the execution finishes.
+         */
+        STRICT,
+        /**
+         * The individual is marked as invalid and counted, and the search
+         * continues.
+         */
+        FLAG
+    }
+
+    /**
+     * The validation mode of the objectives
+     */
+    private ValidationMode validationMode = ValidationMode.STRICT;
+
+    /**
+     * The number of individuals marked as invalid
+     */
+    private final AtomicLong invalidIndividuals = new AtomicLong();
+
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    public void setValidationMode(ValidationMode validationMode) {
+        this.validationMode = validationMode;
+    }
+
+    /**
+     * The number of individuals marked as invalid since the evaluator was
+     * created, in {@link ValidationMode#FLAG} mode.
+     *
+     * @return
+     */
+    public long getInvalidIndividuals() {
+        return invalidIndividuals.get();
+    }
+
+
+    /**
+     * It calculates the value of the objectives given a contingency table. The values are not validated, see
+     * {@link #validate(double[], ContingencyTable)}.
+     *
+     * The objectives are not modified, so this method can be called concurrently.
      *
      * @param confMatrix
+     * @return The value of each objective, in the same order as {@link #getObjectives()}
      */
-    public ArrayList<QualityMeasure> calculateMeasures(ContingencyTable confMatrix) {
+    public double[] calculateMeasures(ContingencyTable confMatrix) {
 
-        ArrayList<QualityMeasure> objs = (ArrayList) objectives.clone();
+        double[] values = new double[objectives.size()];
 
         // Calculates the value of each measure
-        objs.forEach(q -> {
-            try {
-                q.calculateValue(confMatrix);
-                q.validate();
-            } catch (InvalidRangeInMeasureException ex) {
-                System.err.println("Error while evaluating Individuals: ");
-                ex.showAndExit(this);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = objectives.get(i).compute(confMatrix);
+        }
+
+        return values;
+    }
+
+
+    /**
+     * It checks the values of all the objectives at once.
+     *
+     * No exception is thrown: bit {@code i} of the result is set if the value of the {@code i}-th objective is
+     * not valid (objectives from the 32nd onwards share the last bit). In {@link ValidationMode#STRICT} mode, an
+     * invalid value is reported and the execution finishes.
+     *
+     * @param values The values calculated by {@link #calculateMeasures(ContingencyTable)}
+     * @param confMatrix The contingency table of the values, for reporting the error
+     * @return The validation status, 0 if all the values are valid
+     */
+    public int validate(double[] values, ContingencyTable confMatrix) {
+        int status = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!objectives.get(i).isValid(values[i])) {
+                status |= 1 << Math.min(i, 31);
             }
-        });
+        }
+
+        if (status != 0 && validationMode == ValidationMode.STRICT) {
+            // Use a copy of the measure for reporting the error, the objective is shared
+            QualityMeasure failed = objectives.get(Integer.numberOfTrailingZeros(status)).clone();
+            failed.calculateValue(confMatrix);
+            System.err.println("Error while evaluating Individuals: ");
+            new InvalidRangeInMeasureException(failed).showAndExit(this);
+        }
+        return status;
+    }
+
 
-        return objs;
+    /**
+     * It marks the individual as invalid: its objectives are set to minus infinity, so it is dominated by any
+     * valid individual, and the validation status is stored as its {@link ValidationStatus} attribute.
+     *
+     * @param individual
+     * @param status The validation status returned by {@link #validate(double[], ContingencyTable)}
+     */
+    protected void setInvalid(Solution<?> individual, int status) {
+        for (int i = 0; i < individual.getNumberOfObjectives(); i++) {
+            individual.setObjective(i, Double.NEGATIVE_INFINITY);
+        }
+        individual.setAttribute(ValidationStatus.class, status);
+        invalidIndividuals.incrementAndGet();
     }
 
 
     /**
-     * It performs the evaluation of the individuals using the labels and the dataset (if necessary)
+     * It removes the validation status of an individual whose objectives are valid, which could be inherited from
+     * an invalid parent.
+     *
+     * @param individual
+     */
+    protected void clearInvalid(Solution<?> individual) {
+        if (individual.getAttribute(ValidationStatus.class) != null) {
+            individual.setAttribute(ValidationStatus.class, null);
+        }
+    }
+
+
+    /**
+     * It performs the evaluation of the individuals using the coverage index of the labels over the dataset.
+     * @param individual
+     * @param index      The coverage index of the data for the current fuzzy labels
+     */
+    public abstract void doEvaluation(Solution<?> individual, CoverageIndex index);
+
+
+    /**
+     * It performs the evaluation of the individual for every class of the problem using a single pass over the
+     * coverage of its antecedent, and assigns the best class as the consequent of the individual.
+     * @param individual
+     * @param index      The coverage index of the data for the current fuzzy labels
+     */
+    public abstract void doEvaluationAllClasses(Solution<?> individual, CoverageIndex index);
+
+
+    /**
+     * It evaluates a list of individuals, with {@link #doEvaluationAllClasses(Solution, CoverageIndex)} if
+     * {@code allClasses} is set or {@link #doEvaluation(Solution, CoverageIndex)} otherwise.
+     *
+     * Subclasses may evaluate the list at once, e.g., calculating the objectives of all the individuals in a
+     * single batch, as long as the results are the same.
+     *
+     * @param individuals The individuals
+     * @param index       The coverage index of the data for the current fuzzy labels
+     * @param allClasses  Whether the best class is chosen as the consequent of each individual
+     * @param pool        The pool where the individuals can be processed in parallel, or {@code null}
+     */
+    public void doEvaluation(List<? extends Solution<?>> individuals, CoverageIndex index, boolean allClasses, ForkJoinPool pool) {
+        for (Solution<?> individual : individuals) {
+            if (allClasses) {
+                doEvaluationAllClasses(individual, index);
+            } else {
+                doEvaluation(individual, index);
+            }
+        }
+    }
+
+
+    /**
+     * It performs the evaluation of the individuals using the labels and the dataset (if necessary).
+     *
+     * The coverage index is built on each call, so this method should only be used for one-off evaluations.
+     * When several individuals are evaluated with the same labels, build the {@link CoverageIndex} once and
+     * call {@link #doEvaluation(Solution, CoverageIndex)}.
+     *
      * @param individual
      * @param fuzzySet
-     * @param dataset
+     * @param dataset    The columnar snapshot of the data
      */
-    public abstract void doEvaluation(Solution individual, List<List<FuzzySet>> fuzzySet, Instances dataset);
+    public void doEvaluation(Solution<?> individual, List<List<FuzzySet>> fuzzySet, ColumnarDataset dataset) {
+        doEvaluation(individual, new CoverageIndex(dataset, FuzzyPartition.ofVariables(fuzzySet)));
+    }
 
 
     /**
@@ -82,7 +256,7 @@ public abstract class Evaluator {
      * @param individual
      * @return
      */
-    public abstract boolean isEmpty(Solution individual);
+    public abstract boolean isEmpty(Solution<?> individual);
 
     /**
      * It returns whether a given variable of the individual participates in the pattern or not.
@@ -91,6 +265,6 @@ public abstract class Evaluator {
      * @param var
      * @return
      */
-    public abstract boolean participates(Solution individual, int var);
+    public abstract boolean participates(Solution<?> individual, int var);
 
 }
@@ -16,118 +16,363 @@
  */
 package es.ujaen.metaheuristicas.evaluator;
 
+import es.ujaen.metaheuristicas.dataset.Bitmaps;
+import es.ujaen.metaheuristicas.dataset.ColumnarDataset;
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
 import es.ujaen.metaheuristicas.evaluator.Evaluator;
-import es.ujaen.metaheuristicas.fuzzy.FuzzySet;
 import es.ujaen.metaheuristicas.attributes.Clase;
 import org.uma.jmetal.solution.Solution;
-import org.uma.jmetal.solution.impl.DefaultBinarySolution;
+import es.ujaen.metaheuristicas.solution.PackedBinarySolution;
+import org.uma.jmetal.solution.BinarySolution;
 import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTable;
-import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure;
-import weka.core.Instances;
+import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTableBatch;
+import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasureKernel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 
 public class EvaluatorIndDNF extends Evaluator {
 
+    /**
+     * The maximum number of bitmap words of per-variable coverage stored in each individual for incremental
+     * re-evaluation (0 = the coverage is not stored).
+     */
+    private long maxCoverageWords = 0;
+
     public EvaluatorIndDNF(){
         super();
         super.setObjectives(new ArrayList<>());
     }
+
+    public long getMaxCoverageWords() {
+        return maxCoverageWords;
+    }
+
+    /**
+     * It sets the maximum number of bitmap words of per-variable coverage stored in each individual. When the
+     * coverage of an individual is stored, the offspring only recompute the coverage of the variables whose labels
+     * changed. Individuals whose coverage exceeds the limit are evaluated from scratch.
+     *
+     * @param maxCoverageWords The number of words (0 disables incremental re-evaluation)
+     */
+    public void setMaxCoverageWords(long maxCoverageWords) {
+        this.maxCoverageWords = maxCoverageWords;
+    }
     
     @Override
-    public void doEvaluation(Solution individual, List<List<FuzzySet>> fuzzySet, Instances dataset) {
-        if(individual instanceof DefaultBinarySolution) {
-            DefaultBinarySolution ind = (DefaultBinarySolution) individual;
-            int tp = 0;
-            int fp = 0;
-            int tn = 0;
-            int fn = 0;
-
-            // Now, for each instance in the dataset, calculate the coverage or not of the example
-
-            if (! isEmpty(ind)) { // The pattern is empty or it is not valid (as the class variable contains more than one class.)
-                for (int i = 0; i < dataset.numInstances(); i++) {
-                    double fuzzyTrigger = 1.0;
-                    int index = 0;
-                    for (int var = 0; var < dataset.numAttributes() && fuzzyTrigger > 0.0; var++) {
-                        if (var != dataset.classIndex()) {
-                            if (participates(ind, var)) {
-                                // The variable participates in the rule (all values are different from zero or one)
-                                if (dataset.attribute(var).isNominal()) {
-                                    // Variable nominal
-                                    Double value = dataset.instance(i).value(var);
-                                    if (!ind.getVariableValue(var).get(value.intValue()) && !dataset.instance(i).isMissing(var)) {
-                                        // Variable (and the whole rule) does not cover the example
-                                        fuzzyTrigger = 0.0;
-                                    }
-                                } else if (dataset.attribute(var).isNumeric()) {
-                                    // Numeric variable, fuzzy computation.
-                                    if (!dataset.instance(i).isMissing(var)) {
-                                        double belonging = 0.0;
-                                        double aux;
-                                        for (int k = 0; k < ind.getNumberOfBits(var); k++) {
-                                            if (ind.getVariableValue(var).get(k)) {
-                                                Double value = dataset.instance(i).value(var);
-                                                aux = fuzzySet.get(var).get(k).getBelongingDegree(value);
-                                            } else {
-                                                aux = 0.0;
-                                            }
-                                            belonging = Math.max(belonging, aux);
-                                        }
-                                        fuzzyTrigger = Math.min(belonging, fuzzyTrigger);
-                                    }
-                                }
-                            }
-                        }
-                    }
-
-                    // Get the class of the examples
-                    Double classAttr = dataset.get(i).classValue();
+    public void doEvaluation(Solution<?> individual, CoverageIndex index) {
+        doEvaluation(Collections.singletonList(individual), index, false, null);
+    }
 
-                    // Get the attribute class of the individual
-                    int clas = (int) ind.getAttribute(new Clase<DefaultBinarySolution>().getAttributeIdentifier());
+    /**
+     * It evaluates the antecedent of the individual against every class and keeps the best consequent.
+     *
+     * The covered instances are computed once (or taken from the cache), and the contingency table of each class
+     * is derived from the number of covered instances of each class. The chosen class is the one with the best objectives, compared
+     * in lexicographic order (objectives are maximised). The class and contingency table attributes of the
+     * individual are updated accordingly.
+     *
+     * @param individual
+     * @param index
+     */
+    @Override
+    public void doEvaluationAllClasses(Solution<?> individual, CoverageIndex index) {
+        doEvaluation(Collections.singletonList(individual), index, true, null);
+    }
 
-                    // Fuzzy belonging degree is now calculated for the given instance. Calculate the measures
-                    if (fuzzyTrigger > 0) {
-                        if (clas == classAttr.intValue()) {
-                            tp++;
-                        } else {
-                            fp++;
-                        }
-                    } else {
-                        if (clas == classAttr.intValue()) {
-                            fn++;
-                        } else {
-                            tn++;
-                        }
-                    }
+    /**
+     * It evaluates a list of individuals with a single batch of contingency tables.
+     *
+     * First, the covered instances of each class are counted for each individual, in parallel in the given pool
+     * (if any), as they do not depend on the rest of individuals. Then, the contingency tables of all the
+     * individuals (of every class, in all-classes mode) are stored in a {@link ContingencyTableBatch}, and the
+     * objectives are calculated for the whole batch with a {@link QualityMeasureKernel}. Finally, the objectives
+     * are validated and assigned to each individual in order.
+     *
+     * @param individuals The individuals
+     * @param index       The coverage index of the data
+     * @param allClasses  Whether the best class is chosen as the consequent of each individual
+     * @param pool        The pool for counting the covered instances in parallel, or {@code null}
+     */
+    @Override
+    public void doEvaluation(List<? extends Solution<?>> individuals, CoverageIndex index, boolean allClasses, ForkJoinPool pool) {
+        int n = individuals.size();
+        RulePlan[] plans = new RulePlan[n];
+        int[][] counts = new int[n][];
 
+        // Compile the individuals and count the covered instances of each class. Empty patterns are not counted.
+        IntConsumer count = i -> {
+            Solution<?> individual = individuals.get(i);
+            if (individual instanceof BinarySolution) {
+                plans[i] = RulePlan.compile((BinarySolution) individual);
+                if (!plans[i].isEmpty()) {
+                    counts[i] = coveredByClass(individual, plans[i], index);
                 }
+            }
+        };
+        if (pool == null || n < 2) {
+            for (int i = 0; i < n; i++) {
+                count.accept(i);
+            }
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, n).parallel().forEach(count)));
+        }
 
-                // now, all individuals are evaluated so the contingency table can be created for calculating the objectives.
+        // Calculate the objectives of every contingency table at once
+        int numClasses = index.getDataset().getNumClasses();
+        ContingencyTableBatch batch = new ContingencyTableBatch(allClasses ? n * numClasses : n);
+        for (int i = 0; i < n; i++) {
+            if (counts[i] != null) {
+                if (allClasses) {
+                    for (ContingencyTable table : contingencyTables(counts[i], index)) {
+                        batch.add(table);
+                    }
+                } else {
+                    batch.add(contingencyTable(counts[i], plans[i].getClase(), index));
+                }
+            }
+        }
+        double[][] values = new QualityMeasureKernel(getObjectives()).compute(batch);
 
-                ContingencyTable table = new ContingencyTable(tp, fp, tn, fn);
+        int t = 0;
+        for (int i = 0; i < n; i++) {
+            if (plans[i] == null) {
+                continue;
+            }
+            Solution<?> ind = individuals.get(i);
+            if (counts[i] == null) { // The pattern is empty or it is not valid (as the class variable contains more than one class.)
+                for (int j = 0; j < ind.getNumberOfObjectives(); j++) {
+                    ind.setObjective(j, Double.NEGATIVE_INFINITY);
+                }
+                super.clearInvalid(ind);
+            } else if (!allClasses) {
+                ContingencyTable table = batch.get(t);
                 ind.setAttribute(ContingencyTable.class, table);
-                ArrayList<QualityMeasure> measures = super.calculateMeasures(table);
-                for (int i = 0; i < measures.size(); i++) {
-                    ind.setObjective(i, measures.get(i).getValue());
+                double[] measures = column(values, t++);
+                int status = super.validate(measures, table);
+                if (status == 0) {
+                    for (int j = 0; j < measures.length; j++) {
+                        ind.setObjective(j, measures[j]);
+                    }
+                    super.clearInvalid(ind);
+                } else {
+                    super.setInvalid(ind, status);
                 }
             } else {
-                for (int i = 0; i < ind.getNumberOfObjectives(); i++) {
-                    ind.setObjective(i, Double.NEGATIVE_INFINITY);
+                // Classes with invalid objectives are not considered
+                int best = -1;
+                int status = 0;
+                double[] bestMeasures = null;
+                for (int clas = 0; clas < numClasses; clas++) {
+                    double[] measures = column(values, t + clas);
+                    int classStatus = super.validate(measures, batch.get(t + clas));
+                    if (classStatus != 0) {
+                        status |= classStatus;
+                    } else if (best < 0 || isBetter(measures, bestMeasures)) {
+                        best = clas;
+                        bestMeasures = measures;
+                    }
+                }
+
+                if (best >= 0) {
+                    ind.setAttribute(Clase.class, best);
+                    ind.setAttribute(ContingencyTable.class, batch.get(t + best));
+                    for (int j = 0; j < bestMeasures.length; j++) {
+                        ind.setObjective(j, bestMeasures[j]);
+                    }
+                    super.clearInvalid(ind);
+                } else {
+                    super.setInvalid(ind, status);
                 }
+                t += numClasses;
             }
         }
     }
 
+    /**
+     * It returns the values of all the measures for a table of the batch
+     *
+     * @param values The values calculated by the kernel, by measure
+     * @param t      The table
+     * @return
+     */
+    private static double[] column(double[][] values, int t) {
+        double[] measures = new double[values.length];
+        for (int m = 0; m < measures.length; m++) {
+            measures[m] = values[m][t];
+        }
+        return measures;
+    }
+
+    /**
+     * It returns whether the objectives {@code a} are better than {@code b} in lexicographic order
+     *
+     * @param a
+     * @param b
+     * @return
+     */
+    private boolean isBetter(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int cmp = Double.compare(a[i], b[i]);
+            if (cmp != 0) {
+                return cmp > 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * It calculates the number of instances of each class covered by a compiled rule.
+     *
+     * If the evaluator has a cache, the counts are looked up by the antecedent of the rule first, and stored
+     * after they are computed. Otherwise, the coverage is computed reusing the per-variable coverage inherited by
+     * the individual, and the new per-variable coverage is stored in the individual if it fits in the memory
+     * limit. The returned array must not be modified.
+     *
+     * @param individual The individual the rule is compiled from
+     * @param plan       The compiled rule
+     * @param index      The coverage index of the data
+     * @return The number of covered instances of each class
+     */
+    public int[] coveredByClass(Solution<?> individual, RulePlan plan, CoverageIndex index) {
+        EvaluationCache cache = getCache();
+        int[] counts = cache == null ? null : cache.get(index, plan);
+        if (counts == null) {
+            VariableCoverage inherited = (VariableCoverage) individual.getAttribute(VariableCoverage.class);
+            long[][] variableCoverage = null;
+            if ((long) plan.size() * ColumnarDataset.words(index.getNumRows()) <= maxCoverageWords) {
+                variableCoverage = new long[plan.size()][];
+            } else if (inherited != null) {
+                // The coverage does not fit: the individual is evaluated from scratch and it does not pass the
+                // coverage of its parents on to its offspring
+                inherited = null;
+                individual.setAttribute(VariableCoverage.class, null);
+            }
+
+            long[] covered = coverage(plan, index, inherited, variableCoverage);
+            if (variableCoverage != null) {
+                individual.setAttribute(VariableCoverage.class,
+                        new VariableCoverage(index, plan, variableCoverage, individual.getNumberOfVariables(), maxCoverageWords));
+            }
+
+            counts = new int[index.getDataset().getNumClasses()];
+            for (int clas = 0; clas < counts.length; clas++) {
+                counts[clas] = index.countCovered(covered, clas);
+            }
+            if (cache != null) {
+                cache.put(index, plan, counts);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * It calculates the contingency table of a rule with the given class from its covered instances.
+     *
+     * @param coveredByClass The number of covered instances of each class
+     * @param clas           The class of the rule
+     * @param index          The coverage index of the data
+     * @return
+     */
+    public ContingencyTable contingencyTable(int[] coveredByClass, int clas, CoverageIndex index) {
+        // Count the covered examples of the class and the rest of classes
+        int coveredCount = 0;
+        for (int count : coveredByClass) {
+            coveredCount += count;
+        }
+        int tp = coveredByClass[clas];
+        int fp = coveredCount - tp;
+        int fn = index.getClassCount(clas) - tp;
+        int tn = index.getNumInstances() - index.getClassCount(clas) - fp;
+        return new ContingencyTable(tp, fp, tn, fn);
+    }
+
+    /**
+     * It calculates the contingency table of a rule for every class of the problem from a single coverage pass.
+     *
+     * @param coveredByClass The number of covered instances of each class
+     * @param index          The coverage index of the data
+     * @return The contingency table of each class
+     */
+    public ContingencyTable[] contingencyTables(int[] coveredByClass, CoverageIndex index) {
+        ContingencyTable[] tables = new ContingencyTable[coveredByClass.length];
+        for (int clas = 0; clas < tables.length; clas++) {
+            tables[clas] = contingencyTable(coveredByClass, clas, index);
+        }
+        return tables;
+    }
+
+    /**
+     * It calculates the instances covered by a compiled rule.
+     *
+     * For each participating variable, the coverage of its selected labels is OR-ed and the result is AND-ed with
+     * the coverage of the rule. Missing values are always covered by the variable.
+     *
+     * @param plan  The compiled rule
+     * @param index The coverage index of the data
+     * @return The bitmap of the covered rows of the index
+     */
+    public long[] coverage(RulePlan plan, CoverageIndex index) {
+        return coverage(plan, index, null, null);
+    }
+
+    /**
+     * It calculates the instances covered by a compiled rule, reusing the coverage of the variables whose labels
+     * are found in {@code inherited}.
+     *
+     * @param plan             The compiled rule
+     * @param index            The coverage index of the data
+     * @param inherited        The per-variable coverage of a previous evaluation, or {@code null}
+     * @param variableCoverage If not {@code null}, the coverage of the {@code j}-th participating variable is
+     *                         stored in {@code variableCoverage[j]}. Its bitmaps must not be modified.
+     * @return The bitmap of the covered rows of the index
+     */
+    public long[] coverage(RulePlan plan, CoverageIndex index, VariableCoverage inherited, long[][] variableCoverage) {
+        long[] covered = Bitmaps.full(index.getNumRows());
+        long[] scratch = null;
+
+        for (int j = 0; j < plan.size(); j++) {
+            int var = plan.getVariable(j);
+            if (index.isIndexed(var)) {
+                long[] mask = plan.getMask(j);
+                long[] coverage = inherited == null ? null : inherited.find(index, var, mask);
+                if (coverage == null) {
+                    if (variableCoverage != null) {
+                        coverage = new long[covered.length];
+                    } else {
+                        coverage = scratch == null ? (scratch = new long[covered.length]) : scratch;
+                    }
+                    long[] missing = index.getMissing(var);
+                    System.arraycopy(missing, 0, coverage, 0, missing.length);
+                    for (int w = 0; w < mask.length; w++) {
+                        for (long bits = mask[w]; bits != 0; bits &= bits - 1) {
+                            int label = (w << 6) + Long.numberOfTrailingZeros(bits);
+                            Bitmaps.or(coverage, index.getLabelCoverage(var, label));
+                        }
+                    }
+                }
+                if (variableCoverage != null) {
+                    variableCoverage[j] = coverage;
+                }
+                Bitmaps.and(covered, coverage);
+            }
+        }
+
+        return covered;
+    }
+
     @Override
-    public boolean isEmpty(Solution individual) {
-        if(individual instanceof DefaultBinarySolution){
-            DefaultBinarySolution ind = (DefaultBinarySolution) individual;
+    public boolean isEmpty(Solution<?> individual) {
+        if(individual instanceof BinarySolution){
+            BinarySolution ind = (BinarySolution) individual;
             for(int i = 0; i < ind.getNumberOfVariables(); i++){
-                if(ind.getVariableValue(i).cardinality() > 0 && ind.getVariableValue(i).cardinality() < ind.getNumberOfBits(i)){
+                if(participates(ind, i)){
                     // variable participates in the rules, is not empty
                     return false;
                 }
@@ -140,11 +385,14 @@ public class EvaluatorIndDNF extends Evaluator {
     }
 
     @Override
-    public boolean participates(Solution individual, int var) {
-        if(individual instanceof DefaultBinarySolution) {
-            DefaultBinarySolution ind = (DefaultBinarySolution) individual;
+    public boolean participates(Solution<?> individual, int var) {
+        if(individual instanceof BinarySolution) {
+            BinarySolution ind = (BinarySolution) individual;
             // a variable does not participate in the rule if all its values are 0 or 1.
-            return ind.getVariableValue(var).cardinality() > 0 && ind.getVariableValue(var).cardinality() < ind.getNumberOfBits(var);
+            int cardinality = ind instanceof PackedBinarySolution
+                    ? ((PackedBinarySolution) ind).getCardinality(var)
+                    : ind.getVariableValue(var).cardinality();
+            return cardinality > 0 && cardinality < ind.getNumberOfBits(var);
         } else {
             return false;
         }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.evaluator;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+
+/**
+ * Solution list evaluator that splits the list among the threads of a
+ * work-stealing {@link ForkJoinPool}.
+ *
+ * Each solution is evaluated in place, and the evaluation does not depend on
+ * the random number generator, so the results are the same as the ones of the
+ * sequential evaluator for the same seed. The problem must support concurrent
+ * calls to {@code evaluate()}.
+ *
+ * If the problem is a {@link BatchEvaluationProblem}, the whole list is given
+ * to the problem at once, so the objectives of a generation are calculated
+ * from a single batch, and the pool is only employed for the part of the
+ * evaluation of each solution that is independent of the rest.
+ *
+ * @author agvico
+ * @param <S> The type of the solutions
+ */
+public class ParallelSolutionListEvaluator<S> implements SolutionListEvaluator<S> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The pool of threads employed for the evaluation, or {@code null} if the
+     * solutions are evaluated in the calling thread
+     */
+    private final transient ForkJoinPool pool;
+
+    /**
+     * Default constructor
+     *
+     * @param numberOfThreads The number of threads of the pool (1 =
+     * sequential evaluation in the calling thread)
+     */
+    public ParallelSolutionListEvaluator(int numberOfThreads) {
+        this.pool = numberOfThreads > 1 ? new ForkJoinPool(numberOfThreads) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<S> evaluate(List<S> solutionList, Problem<S> problem) {
+        if (problem instanceof BatchEvaluationProblem) {
+            ((BatchEvaluationProblem<S>) problem).evaluate(solutionList, pool);
+        } else if (pool == null) {
+            solutionList.forEach(problem::evaluate);
+        } else {
+            pool.invoke(new EvaluationTask<>(solutionList, problem, 0, solutionList.size()));
+        }
+        return solutionList;
+    }
+
+    /**
+     * The number of threads of the pool
+     *
+     * @return
+     */
+    public int getNumberOfThreads() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    @Override
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Task that evaluates the solutions in the range [from, to). Ranges are
+     * split in halves, so idle threads can steal the pending halves.
+     */
+    private static class EvaluationTask<S> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<S> solutions;
+        private final Problem<S> problem;
+        private final int from;
+        private final int to;
+
+        EvaluationTask(List<S> solutions, Problem<S> problem, int from, int to) {
+            this.solutions = solutions;
+            this.problem = problem;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    problem.evaluate(solutions.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EvaluationTask<>(solutions, problem, from, mid),
+                        new EvaluationTask<>(solutions, problem, mid, to));
+            }
+        }
+    }
+}
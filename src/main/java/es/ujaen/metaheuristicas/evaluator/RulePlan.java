@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.evaluator;
+
+import es.ujaen.metaheuristicas.attributes.Clase;
+import es.ujaen.metaheuristicas.solution.PackedBinarySolution;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.binarySet.BinarySet;
+
+/**
+ * Compiled form of a DNF rule.
+ *
+ * It stores only the variables that participate in the rule, the mask of
+ * linguistic labels (or nominal values) selected for each one and the class
+ * of the rule. An individual is compiled once per evaluation, so the cost of
+ * the evaluation depends on the number of participating variables instead of
+ * the number of attributes of the dataset.
+ *
+ * The plan is the canonical form of the antecedent of the rule: variables that
+ * do not participate are removed, whatever their bits are. Two plans are equal
+ * if their antecedents are equal, i.e., the class is not taken into account in
+ * {@link #equals(Object)} and {@link #hashCode()}.
+ *
+ * @author agvico
+ */
+public final class RulePlan {
+
+    /**
+     * The participating variables, in increasing order
+     */
+    private final int[] variables;
+
+    /**
+     * The labels selected for each participating variable. Bit {@code k} of
+     * {@code masks[j]} is set if the label {@code k} of variable
+     * {@code variables[j]} is selected.
+     */
+    private final long[][] masks;
+
+    /**
+     * The class of the rule
+     */
+    private final int clase;
+
+    /**
+     * The hash code of the antecedent
+     */
+    private final int hash;
+
+    private RulePlan(int[] variables, long[][] masks, int clase) {
+        this.variables = variables;
+        this.masks = masks;
+        this.clase = clase;
+        this.hash = 31 * Arrays.hashCode(variables) + Arrays.deepHashCode(masks);
+    }
+
+    /**
+     * It compiles an individual.
+     *
+     * A variable participates in the rule if not all its values are zero or
+     * one. Bits beyond the number of bits of the variable are removed from the
+     * masks.
+     *
+     * @param individual
+     * @return
+     */
+    public static RulePlan compile(BinarySolution individual) {
+        int[] variables = new int[individual.getNumberOfVariables()];
+        long[][] masks = new long[individual.getNumberOfVariables()][];
+        int count = 0;
+
+        if (individual instanceof PackedBinarySolution) {
+            // Read the bits directly from the chromosome
+            PackedBinarySolution packed = (PackedBinarySolution) individual;
+            for (int var = 0; var < packed.getNumberOfVariables(); var++) {
+                int cardinality = packed.getCardinality(var);
+                if (cardinality > 0 && cardinality < packed.getNumberOfBits(var)) {
+                    variables[count] = var;
+                    masks[count] = packed.getVariableBits(var);
+                    count++;
+                }
+            }
+        } else {
+            for (int var = 0; var < individual.getNumberOfVariables(); var++) {
+                BinarySet value = individual.getVariableValue(var);
+                int numBits = individual.getNumberOfBits(var);
+                int cardinality = value.cardinality();
+                if (cardinality > 0 && cardinality < numBits) {
+                    long[] mask = new long[(numBits + 63) >>> 6];
+                    long[] words = value.toLongArray();
+                    System.arraycopy(words, 0, mask, 0, Math.min(words.length, mask.length));
+                    if ((numBits & 63) != 0) {
+                        mask[mask.length - 1] &= (1L << numBits) - 1;
+                    }
+                    variables[count] = var;
+                    masks[count] = mask;
+                    count++;
+                }
+            }
+        }
+
+        int[] vars = new int[count];
+        long[][] selected = new long[count][];
+        System.arraycopy(variables, 0, vars, 0, count);
+        System.arraycopy(masks, 0, selected, 0, count);
+
+        Object clas = individual.getAttribute(Clase.class);
+        return new RulePlan(vars, selected, clas == null ? -1 : (Integer) clas);
+    }
+
+    /**
+     * It removes the patterns whose antecedent is equal to the antecedent of
+     * a previous pattern of the list, or to one of the given antecedents. The
+     * order of the patterns is kept. As the class is not compared, all the
+     * patterns should have the same class.
+     *
+     * @param <S> The type of the patterns
+     * @param patterns The patterns
+     * @param seen The antecedents already found. The antecedents of the
+     * returned patterns are added to it.
+     * @return The patterns with different antecedents
+     */
+    public static <S extends BinarySolution> List<S> removeRepeated(List<S> patterns, Set<RulePlan> seen) {
+        List<S> result = new ArrayList<>(patterns.size());
+        for (S pattern : patterns) {
+            if (seen.add(compile(pattern))) {
+                result.add(pattern);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * It removes the patterns whose antecedent is equal to the antecedent of
+     * a previous pattern of the list, in a single pass.
+     *
+     * @param <S> The type of the patterns
+     * @param patterns The patterns, all of them of the same class
+     * @return The patterns with different antecedents
+     */
+    public static <S extends BinarySolution> List<S> removeRepeated(List<S> patterns) {
+        return removeRepeated(patterns, new HashSet<>(2 * patterns.size()));
+    }
+
+    /**
+     * It returns whether the rule is empty, i.e., no variable participates.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return variables.length == 0;
+    }
+
+    /**
+     * The number of participating variables
+     *
+     * @return
+     */
+    public int size() {
+        return variables.length;
+    }
+
+    /**
+     * The index of the {@code j}-th participating variable
+     *
+     * @param j
+     * @return
+     */
+    public int getVariable(int j) {
+        return variables[j];
+    }
+
+    /**
+     * The labels selected for the {@code j}-th participating variable. The
+     * returned array must not be modified.
+     *
+     * @param j
+     * @return
+     */
+    public long[] getMask(int j) {
+        return masks[j];
+    }
+
+    /**
+     * The class of the rule, or -1 if the individual has no class.
+     *
+     * @return
+     */
+    public int getClase() {
+        return clase;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RulePlan)) {
+            return false;
+        }
+        RulePlan other = (RulePlan) obj;
+        return hash == other.hash
+                && Arrays.equals(variables, other.variables)
+                && Arrays.deepEquals(masks, other.masks);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.evaluator;
+
+import es.ujaen.metaheuristicas.dataset.CoverageIndex;
+import java.util.Arrays;
+
+/**
+ * Coverage of each participating variable of an evaluated individual.
+ *
+ * It is stored as an attribute of the individual, so it is inherited by the
+ * offspring when the individual is copied. As mutation changes a single
+ * variable and crossover swaps whole variables, most of the variables of a
+ * child have the same labels as in one of its parents, and their coverage
+ * does not need to be recomputed.
+ *
+ * An entry is only reused if the coverage index and the selected labels of
+ * the variable are the same, so a stale attribute never produces a wrong
+ * evaluation. The bitmaps are immutable and shared among the individuals. A
+ * coverage may have a donor (the other parent of a crossover), which is never
+ * chained further. The donor is only kept if the words of both fit in the
+ * limit per individual the coverage was stored with, so the memory retained
+ * by an individual is bounded by that limit.
+ *
+ * @author agvico
+ */
+public final class VariableCoverage {
+
+    /**
+     * The coverage index the bitmaps were computed with
+     */
+    private final CoverageIndex index;
+
+    /**
+     * The labels selected for each variable, or {@code null} if the coverage
+     * of the variable is not stored
+     */
+    private final long[][] masks;
+
+    /**
+     * The instances covered by each variable
+     */
+    private final long[][] bitmaps;
+
+    /**
+     * The coverage of the other parent, or {@code null}
+     */
+    private final VariableCoverage donor;
+
+    /**
+     * The number of bitmap words stored, without the donor
+     */
+    private final long words;
+
+    /**
+     * The maximum number of bitmap words that an individual may retain
+     */
+    private final long maxWords;
+
+    private VariableCoverage(CoverageIndex index, long[][] masks, long[][] bitmaps, long words, long maxWords, VariableCoverage donor) {
+        this.index = index;
+        this.masks = masks;
+        this.bitmaps = bitmaps;
+        this.words = words;
+        this.maxWords = maxWords;
+        this.donor = donor;
+    }
+
+    /**
+     * It stores the coverage of the participating variables of a compiled
+     * rule.
+     *
+     * @param index The coverage index of the evaluation
+     * @param plan The compiled rule
+     * @param coverage The coverage of the {@code j}-th participating variable
+     * of the plan ({@code null} for variables without coverage information)
+     * @param numberOfVariables The number of variables of the problem
+     * @param maxWords The maximum number of bitmap words that an individual
+     * may retain, including the ones of a donor
+     */
+    public VariableCoverage(CoverageIndex index, RulePlan plan, long[][] coverage, int numberOfVariables, long maxWords) {
+        this(index, new long[numberOfVariables][], new long[numberOfVariables][], words(coverage), maxWords, null);
+        for (int j = 0; j < plan.size(); j++) {
+            if (coverage[j] != null) {
+                masks[plan.getVariable(j)] = plan.getMask(j);
+                bitmaps[plan.getVariable(j)] = coverage[j];
+            }
+        }
+    }
+
+    private static long words(long[][] coverage) {
+        long words = 0;
+        for (long[] bitmap : coverage) {
+            if (bitmap != null) {
+                words += bitmap.length;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * It returns the coverage of both parents of a crossover: the entries of
+     * {@code parent} are looked up first, then the ones of {@code donor}. The
+     * donor is dropped if the words of both exceed the limit of
+     * {@code parent}.
+     *
+     * @param parent The coverage of the parent the child is copied from
+     * @param donor The coverage of the other parent
+     * @return
+     */
+    public static VariableCoverage merge(VariableCoverage parent, VariableCoverage donor) {
+        if (parent == null || donor == null) {
+            return parent == null ? donor : parent;
+        }
+        if (donor.index != parent.index || parent.words + donor.words > parent.maxWords) {
+            return parent;
+        }
+        return new VariableCoverage(parent.index, parent.masks, parent.bitmaps, parent.words, parent.maxWords,
+                new VariableCoverage(donor.index, donor.masks, donor.bitmaps, donor.words, donor.maxWords, null));
+    }
+
+    /**
+     * The number of bitmap words retained, including the ones of the donor
+     *
+     * @return
+     */
+    public long getWords() {
+        return donor == null ? words : words + donor.words;
+    }
+
+    /**
+     * It returns the instances covered by a variable with the given labels,
+     * or {@code null} if they are not stored. The returned bitmap must not be
+     * modified.
+     *
+     * @param index The coverage index of the evaluation
+     * @param var The variable
+     * @param mask The selected labels of the variable
+     * @return
+     */
+    public long[] find(CoverageIndex index, int var, long[] mask) {
+        if (index != this.index) {
+            return null;
+        }
+        if (var < masks.length && Arrays.equals(masks[var], mask)) {
+            return bitmaps[var];
+        }
+        return donor == null ? null : donor.find(index, var, mask);
+    }
+
+    @Override
+    public String toString() {
+        int count = 0;
+        for (long[] bitmap : bitmaps) {
+            if (bitmap != null) {
+                count++;
+            }
+        }
+        return count + " variables";
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.fuzzy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The linguistic labels of a numeric variable.
+ *
+ * The definitions of all the labels are stored in primitive arrays, one per
+ * point of the definition, and each type of fuzzy set has its own final
+ * subclass. So, the membership of a whole column of values to a label is
+ * calculated by means of a monomorphic loop over primitive values, instead of
+ * a virtual call and the unboxing of the points for each value.
+ *
+ * The partitions are immutable. The {@link FuzzySet} objects of the labels
+ * are created on demand, for the code that works with single fuzzy sets.
+ *
+ * @author agvico
+ */
+public abstract class FuzzyPartition {
+
+    /**
+     * The number of linguistic labels of the partition
+     *
+     * @return
+     */
+    public abstract int size();
+
+    /**
+     * It returns the belonging degree of {@code x} to the given label.
+     *
+     * @param label
+     * @param x
+     * @return
+     */
+    public abstract double getBelongingDegree(int label, double x);
+
+    /**
+     * It calculates the belonging degree of each value of {@code x} to the
+     * given label.
+     *
+     * @param label
+     * @param x The values
+     * @param degrees The array where the belonging degree of {@code x[i]} is
+     * stored in {@code degrees[i]}
+     */
+    public abstract void getBelongingDegrees(int label, double[] x, double[] degrees);
+
+    /**
+     * It returns the labels where {@code x} has a belonging degree greater
+     * than zero, in increasing order.
+     *
+     * @param x
+     * @param labels The array where the active labels are stored. It must
+     * have room for {@link #size()} labels.
+     * @param degrees The array where the belonging degree of each active
+     * label is stored
+     * @return The number of active labels
+     */
+    public int getActiveLabels(double x, int[] labels, double[] degrees) {
+        int count = 0;
+        for (int label = 0; label < size(); label++) {
+            double degree = getBelongingDegree(label, x);
+            if (degree > 0.0) {
+                labels[count] = label;
+                degrees[count] = degree;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * It creates the fuzzy set of the given label.
+     *
+     * @param label
+     * @return
+     */
+    public abstract FuzzySet getFuzzySet(int label);
+
+    /**
+     * It creates the fuzzy sets of all the labels.
+     *
+     * @return
+     */
+    public List<FuzzySet> getFuzzySets() {
+        List<FuzzySet> sets = new ArrayList<>(size());
+        for (int label = 0; label < size(); label++) {
+            sets.add(getFuzzySet(label));
+        }
+        return sets;
+    }
+
+    /**
+     * It creates the partition of the given fuzzy sets. If all the sets have
+     * the same type, the partition is specialised for it.
+     *
+     * @param sets
+     * @return
+     */
+    public static FuzzyPartition of(List<FuzzySet> sets) {
+        if (allOf(sets, TriangularFuzzySet.class)) {
+            return new TriangularPartition(points(sets, 0), points(sets, 1), points(sets, 2), heights(sets));
+        } else if (allOf(sets, TrapezoidalFuzzySet.class)) {
+            return new TrapezoidalPartition(points(sets, 0), points(sets, 1), points(sets, 2), points(sets, 3));
+        } else if (allOf(sets, GaussianFuzzySet.class)) {
+            return new GaussianPartition(points(sets, 0), points(sets, 1));
+        } else {
+            return new GenericPartition(sets);
+        }
+    }
+
+    /**
+     * It creates the partition of each variable.
+     *
+     * @param fuzzySets The fuzzy sets of each variable ({@code null} for
+     * non-numeric variables)
+     * @return The partition of each variable ({@code null} for non-numeric
+     * variables)
+     */
+    public static List<FuzzyPartition> ofVariables(List<List<FuzzySet>> fuzzySets) {
+        List<FuzzyPartition> partitions = new ArrayList<>(fuzzySets.size());
+        for (List<FuzzySet> sets : fuzzySets) {
+            partitions.add(sets == null ? null : of(sets));
+        }
+        return partitions;
+    }
+
+    /**
+     * It creates the fuzzy sets of each variable.
+     *
+     * @param partitions The partition of each variable ({@code null} for
+     * non-numeric variables)
+     * @return The fuzzy sets of each variable ({@code null} for non-numeric
+     * variables)
+     */
+    public static List<List<FuzzySet>> toFuzzySets(List<FuzzyPartition> partitions) {
+        List<List<FuzzySet>> fuzzySets = new ArrayList<>(partitions.size());
+        for (FuzzyPartition partition : partitions) {
+            fuzzySets.add(partition == null ? null : partition.getFuzzySets());
+        }
+        return fuzzySets;
+    }
+
+    private static boolean allOf(List<FuzzySet> sets, Class<? extends FuzzySet> type) {
+        for (FuzzySet set : sets) {
+            if (set == null || set.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double[] points(List<FuzzySet> sets, int index) {
+        double[] points = new double[sets.size()];
+        for (int label = 0; label < points.length; label++) {
+            points[label] = sets.get(label).getValue(index);
+        }
+        return points;
+    }
+
+    private static double[] heights(List<FuzzySet> sets) {
+        double[] heights = new double[sets.size()];
+        for (int label = 0; label < heights.length; label++) {
+            heights[label] = sets.get(label).getY();
+        }
+        return heights;
+    }
+
+    /**
+     * It returns the given points as the definition of a fuzzy set.
+     *
+     * @param points
+     * @return
+     */
+    static ArrayList<Double> definition(double... points) {
+        ArrayList<Double> definition = new ArrayList<>(points.length);
+        for (double point : points) {
+            definition.add(point);
+        }
+        return definition;
+    }
+
+    /**
+     * Partition of fuzzy sets of different types, evaluated by means of the
+     * fuzzy sets themselves.
+     */
+    private static final class GenericPartition extends FuzzyPartition {
+
+        private final List<FuzzySet> sets;
+
+        GenericPartition(List<FuzzySet> sets) {
+            this.sets = Collections.unmodifiableList(new ArrayList<>(sets));
+        }
+
+        @Override
+        public int size() {
+            return sets.size();
+        }
+
+        @Override
+        public double getBelongingDegree(int label, double x) {
+            return sets.get(label).getBelongingDegree(x);
+        }
+
+        @Override
+        public void getBelongingDegrees(int label, double[] x, double[] degrees) {
+            FuzzySet set = sets.get(label);
+            for (int i = 0; i < x.length; i++) {
+                degrees[i] = set.getBelongingDegree(x[i]);
+            }
+        }
+
+        /**
+         * The fuzzy sets of this partition are not copied, so they must not
+         * be modified.
+         */
+        @Override
+        public FuzzySet getFuzzySet(int label) {
+            return sets.get(label);
+        }
+    }
+}
@@ -16,7 +16,6 @@
  */
 package es.ujaen.metaheuristicas.fuzzy;
 
-import java.lang.reflect.Array;
 import java.util.ArrayList;
 
 public abstract class FuzzySet {
@@ -29,11 +28,14 @@ public abstract class FuzzySet {
     /**
      * The values that defines the fuzzy set.
      */
-    protected ArrayList<Double> values;
+    protected double[] values;
 
 
     public FuzzySet(ArrayList<Double> values, double y){
-        this.values = (ArrayList) values.clone();
+        this.values = new double[values.size()];
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = values.get(i);
+        }
         this.y = y;
     }
 
@@ -48,7 +50,7 @@ public abstract class FuzzySet {
 
 
     public double getValue(int index){
-        return values.get(index);
+        return values[index];
     }
 
     /**
@@ -58,7 +60,7 @@ public abstract class FuzzySet {
      * @param value 
      */
     public void setValue(int index, double value){
-        values.set(index, value);
+        values[index] = value;
     }
 
 
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.fuzzy;
+
+import es.ujaen.metaheuristicas.exceptions.InvalidFuzzySetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Partition of gaussian fuzzy sets.
+ *
+ * By default, the belonging degree is calculated as in
+ * {@link GaussianFuzzySet}, with the denominator of the exponent calculated
+ * once. The partition can also approximate the exponential with a table,
+ * within a given maximum absolute error. An approximated degree is greater
+ * than zero exactly when the exact one is, so both modes cover the same
+ * instances.
+ *
+ * @author agvico
+ */
+public final class GaussianPartition extends FuzzyPartition {
+
+    /**
+     * The mean and the standard deviation of each label
+     */
+    private final double[] mean, sigma;
+
+    /**
+     * The denominator of the exponent of each label, {@code 2 * sigma * sigma}
+     */
+    private final double[] denominator;
+
+    /**
+     * The approximation of the exponential, or {@code null} if the degrees
+     * are exact
+     */
+    private final NegativeExpTable exp;
+
+    /**
+     * It creates the partition with the parameters of each label.
+     *
+     * @param mean The mean of each label
+     * @param sigma The standard deviation of each label
+     * @throws IllegalArgumentException if the arrays have different length
+     */
+    public GaussianPartition(double[] mean, double[] sigma) {
+        this(mean, sigma, null);
+    }
+
+    /**
+     * It creates the partition with the parameters of each label, whose
+     * degrees are approximated.
+     *
+     * @param mean The mean of each label
+     * @param sigma The standard deviation of each label
+     * @param maxError The maximum absolute error of the degrees, from 1e-9 to
+     * 0.1
+     * @throws IllegalArgumentException if the arrays have different length or
+     * the error is out of range
+     */
+    public GaussianPartition(double[] mean, double[] sigma, double maxError) {
+        this(mean, sigma, new NegativeExpTable(maxError));
+    }
+
+    private GaussianPartition(double[] mean, double[] sigma, NegativeExpTable exp) {
+        this.exp = exp;
+        if (sigma.length != mean.length) {
+            throw new IllegalArgumentException("The definitions of the labels have different length");
+        }
+        this.mean = mean.clone();
+        this.sigma = sigma.clone();
+        denominator = new double[mean.length];
+        for (int label = 0; label < mean.length; label++) {
+            denominator[label] = 2 * sigma[label] * sigma[label];
+        }
+    }
+
+    /**
+     * It returns a copy of this partition, with exact degrees.
+     *
+     * @return
+     */
+    public GaussianPartition exact() {
+        return exp == null ? this : new GaussianPartition(mean, sigma);
+    }
+
+    /**
+     * Whether the degrees are calculated exactly
+     *
+     * @return
+     */
+    public boolean isExact() {
+        return exp == null;
+    }
+
+    /**
+     * The maximum absolute error of the degrees, measured when the
+     * approximation was built
+     *
+     * @return 0 if the degrees are exact
+     */
+    public double getMaxError() {
+        return exp == null ? 0.0 : exp.getMaxError();
+    }
+
+    @Override
+    public int size() {
+        return mean.length;
+    }
+
+    @Override
+    public double getBelongingDegree(int label, double x) {
+        double m = mean[label];
+        if (exp != null) {
+            return exp.get((x - m) * (x - m) / denominator[label]);
+        }
+        return Math.exp(-(x - m) * (x - m) / denominator[label]);
+    }
+
+    @Override
+    public void getBelongingDegrees(int label, double[] x, double[] degrees) {
+        double m = mean[label], d = denominator[label];
+        if (exp != null) {
+            NegativeExpTable table = exp;
+            for (int i = 0; i < x.length; i++) {
+                degrees[i] = table.get((x[i] - m) * (x[i] - m) / d);
+            }
+        } else {
+            for (int i = 0; i < x.length; i++) {
+                degrees[i] = Math.exp(-(x[i] - m) * (x[i] - m) / d);
+            }
+        }
+    }
+
+    @Override
+    public FuzzySet getFuzzySet(int label) {
+        try {
+            return new GaussianFuzzySet(definition(mean[label], sigma[label]), 1.0);
+        } catch (InvalidFuzzySetException ex) {
+            // A gaussian set is always valid
+            Logger.getLogger(GaussianPartition.class.getName()).log(Level.SEVERE, null, ex);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.fuzzy;
+
+/**
+ * Approximation of {@code exp(-z)}, for {@code z >= 0}, with a bounded
+ * absolute error.
+ *
+ * The function is linearly interpolated from a table of values equally spaced
+ * in {@code [0, -ln(maxError / 2)]}. The spacing is chosen from the error bound of
+ * the linear interpolation, {@code step^2 / 8}, and the error is then measured
+ * over a dense sample of every interval of the table; if it exceeds the bound,
+ * the spacing is halved. Beyond the table, where {@code exp(-z)} is lower than
+ * the error, the approximation returns {@link Double#MIN_VALUE} while
+ * {@code exp(-z)} is still greater than zero, so an approximated degree is
+ * greater than zero exactly when the exact one is.
+ *
+ * The table is immutable, so it can be shared.
+ *
+ * @author agvico
+ */
+final class NegativeExpTable {
+
+    /**
+     * The minimum and maximum error supported
+     */
+    static final double MIN_ERROR = 1e-9, MAX_ERROR = 0.1;
+
+    /**
+     * The number of points checked in each interval of the table
+     */
+    private static final int SAMPLES = 16;
+
+    /**
+     * The lowest {@code z} such that {@code Math.exp(-z)} is zero
+     */
+    private static final double UNDERFLOW = underflow();
+
+    /**
+     * The values of {@code exp(-i * step)}
+     */
+    private final double[] table;
+
+    /**
+     * The inverse of the distance between the points of the table
+     */
+    private final double inverseStep;
+
+    /**
+     * The upper limit of the table
+     */
+    private final double limit;
+
+    /**
+     * The maximum absolute error measured when the table was built
+     */
+    private final double maxError;
+
+    /**
+     * It builds the table.
+     *
+     * @param maxError The maximum absolute error allowed
+     * @throws IllegalArgumentException if the error is not within
+     * {@link #MIN_ERROR} and {@link #MAX_ERROR}
+     */
+    NegativeExpTable(double maxError) {
+        if (!(maxError >= MIN_ERROR && maxError <= MAX_ERROR)) {
+            throw new IllegalArgumentException("The maximum error of the approximation must be within " + MIN_ERROR + " and " + MAX_ERROR);
+        }
+        limit = -Math.log(maxError / 2);
+        double step = Math.sqrt(4 * maxError);
+        while (true) {
+            int points = (int) Math.ceil(limit / step) + 2;
+            double[] values = new double[points];
+            for (int i = 0; i < points; i++) {
+                values[i] = Math.exp(-i * step);
+            }
+            double error = measure(values, 1.0 / step);
+            if (error <= maxError) {
+                this.table = values;
+                this.inverseStep = 1.0 / step;
+                // Beyond the limit, the error is at most exp(-limit)
+                this.maxError = Math.max(error, Math.exp(-limit));
+                return;
+            }
+            step /= 2;
+        }
+    }
+
+    /**
+     * It returns the approximation of {@code exp(-z)}.
+     *
+     * @param z A value greater than or equal to zero
+     * @return
+     */
+    double get(double z) {
+        if (z < limit) {
+            return interpolate(table, inverseStep, z);
+        } else if (z < UNDERFLOW) {
+            return Double.MIN_VALUE;
+        } else if (z != z) {
+            return z;
+        }
+        return 0.0;
+    }
+
+    /**
+     * The maximum absolute error measured when the table was built
+     *
+     * @return
+     */
+    double getMaxError() {
+        return maxError;
+    }
+
+    private static double interpolate(double[] table, double inverseStep, double z) {
+        double position = z * inverseStep;
+        int i = (int) position;
+        double fraction = position - i;
+        return table[i] + (table[i + 1] - table[i]) * fraction;
+    }
+
+    /**
+     * It measures the maximum error of the interpolation within the limit of
+     * the table.
+     */
+    private double measure(double[] values, double inverseStep) {
+        double error = 0.0;
+        double step = 1.0 / inverseStep;
+        for (int i = 0; i * step < limit; i++) {
+            for (int j = 0; j < SAMPLES; j++) {
+                double z = Math.min((i + j / (double) SAMPLES) * step, Math.nextDown(limit));
+                error = Math.max(error, Math.abs(interpolate(values, inverseStep, z) - Math.exp(-z)));
+            }
+        }
+        return error;
+    }
+
+    private static double underflow() {
+        double low = 0.0, high = 1000.0;
+        while (Math.nextUp(low) < high) {
+            double middle = low + (high - low) / 2;
+            if (middle <= low || middle >= high) {
+                break;
+            }
+            if (Math.exp(-middle) > 0.0) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+}
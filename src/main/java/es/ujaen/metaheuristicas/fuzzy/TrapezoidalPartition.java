@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.fuzzy;
+
+import es.ujaen.metaheuristicas.exceptions.InvalidFuzzySetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Partition of trapezoidal fuzzy sets.
+ *
+ * The belonging degree is calculated as in {@link TrapezoidalFuzzySet}.
+ *
+ * @author agvico
+ */
+public final class TrapezoidalPartition extends FuzzyPartition {
+
+    /**
+     * The points of each label, from the minimum to the maximum
+     */
+    private final double[] x0, x1, x2, x3;
+
+    /**
+     * It creates the partition with the points of each label.
+     *
+     * @param x0 The minimum of each label
+     * @param x1 The lower point of the core of each label
+     * @param x2 The upper point of the core of each label
+     * @param x3 The maximum of each label
+     * @throws IllegalArgumentException if the arrays have different length or
+     * the points of a label are not sorted
+     */
+    public TrapezoidalPartition(double[] x0, double[] x1, double[] x2, double[] x3) {
+        if (x1.length != x0.length || x2.length != x0.length || x3.length != x0.length) {
+            throw new IllegalArgumentException("The definitions of the labels have different length");
+        }
+        this.x0 = x0.clone();
+        this.x1 = x1.clone();
+        this.x2 = x2.clone();
+        this.x3 = x3.clone();
+        for (int label = 0; label < x0.length; label++) {
+            if (x0[label] > x1[label] || x0[label] > x2[label] || x1[label] > x2[label]) {
+                throw new IllegalArgumentException("Invalid Fuzzy set: \"" + getFuzzySet(label));
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return x0.length;
+    }
+
+    @Override
+    public double getBelongingDegree(int label, double x) {
+        double a = x0[label], b = x1[label], c = x2[label], d = x3[label];
+        if ((x < a) || (x > d)) {
+            return 0;
+        }
+        if ((x >= b) && (x <= c)) {
+            return 1;
+        }
+        if (x < b) {
+            return ((x - a) / (b - a));
+        }
+        return 1 - ((x - c) / (d - c));
+    }
+
+    @Override
+    public void getBelongingDegrees(int label, double[] x, double[] degrees) {
+        double a = x0[label], b = x1[label], c = x2[label], d = x3[label];
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i];
+            double degree;
+            if ((v < a) || (v > d)) {
+                degree = 0;
+            } else if ((v >= b) && (v <= c)) {
+                degree = 1;
+            } else if (v < b) {
+                degree = ((v - a) / (b - a));
+            } else {
+                degree = 1 - ((v - c) / (d - c));
+            }
+            degrees[i] = degree;
+        }
+    }
+
+    @Override
+    public FuzzySet getFuzzySet(int label) {
+        try {
+            return new TrapezoidalFuzzySet(definition(x0[label], x1[label], x2[label], x3[label]), 1.0);
+        } catch (InvalidFuzzySetException ex) {
+            // The points are checked when the partition is created
+            Logger.getLogger(TrapezoidalPartition.class.getName()).log(Level.SEVERE, null, ex);
+            return null;
+        }
+    }
+}
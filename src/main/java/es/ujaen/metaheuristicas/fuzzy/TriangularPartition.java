@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.fuzzy;
+
+import es.ujaen.metaheuristicas.exceptions.InvalidFuzzySetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Partition of triangular fuzzy sets.
+ *
+ * The belonging degree is calculated as in {@link TriangularFuzzySet}, with the
+ * slopes of both sides of each triangle calculated once.
+ *
+ * If the centres of the labels are equally spaced and each triangle spans
+ * (approximately) from the centre of the previous label to the centre of the
+ * next one, as in the partitions generated by the problem, the partition is
+ * uniform: a value can only belong to the labels around
+ * {@code round((x - x1[0]) / step)}, so its active labels are found by checking
+ * at most three labels, whatever the number of labels.
+ *
+ * @author agvico
+ */
+public final class TriangularPartition extends FuzzyPartition {
+
+    /**
+     * The minimum, medium and maximum point of each label
+     */
+    private final double[] x0, x1, x2;
+
+    /**
+     * The maximum belonging degree of each label
+     */
+    private final double[] y;
+
+    /**
+     * The slope of the left side, {@code y / (x1 - x0)}, and of the right
+     * side, {@code y / (x2 - x1)}, of each label
+     */
+    private final double[] up, down;
+
+    /**
+     * Whether the active labels are found by means of the distance to the
+     * first centre
+     */
+    private final boolean uniform;
+
+    /**
+     * The inverse of the distance between consecutive centres, if the
+     * partition is uniform
+     */
+    private final double inverseStep;
+
+    /**
+     * It creates the partition with the points of each label.
+     *
+     * @param x0 The minimum of each label
+     * @param x1 The medium of each label
+     * @param x2 The maximum of each label
+     * @param y The maximum belonging degree of each label
+     * @throws IllegalArgumentException if the arrays have different length or
+     * the points of a label are not sorted
+     */
+    public TriangularPartition(double[] x0, double[] x1, double[] x2, double[] y) {
+        if (x1.length != x0.length || x2.length != x0.length || y.length != x0.length) {
+            throw new IllegalArgumentException("The definitions of the labels have different length");
+        }
+        this.x0 = x0.clone();
+        this.x1 = x1.clone();
+        this.x2 = x2.clone();
+        this.y = y.clone();
+        up = new double[x0.length];
+        down = new double[x0.length];
+        for (int label = 0; label < x0.length; label++) {
+            if (x0[label] > x1[label] || x0[label] > x2[label] || x1[label] > x2[label]) {
+                throw new IllegalArgumentException("Invalid Fuzzy set: \"" + getFuzzySet(label));
+            }
+            up[label] = y[label] / (x1[label] - x0[label]);
+            down[label] = y[label] / (x2[label] - x1[label]);
+        }
+        double step = x0.length > 1 ? (x1[x0.length - 1] - x1[0]) / (x0.length - 1) : 0.0;
+        uniform = isUniform(step);
+        inverseStep = uniform ? 1.0 / step : 0.0;
+    }
+
+    /**
+     * It checks whether the support of every label {@code l} is within
+     * {@code x1[0] + (l - 1.25) * step} and {@code x1[0] + (l + 1.25) * step}
+     * (without the bound at the extremes of the partition). Then, the labels
+     * of a value {@code x} with degree greater than zero are at distance less
+     * than 1.75 of {@code round((x - x1[0]) / step)}, even with the rounding
+     * errors of the calculation.
+     */
+    private boolean isUniform(double step) {
+        int n = x0.length;
+        if (n < 2 || !(step > 0.0) || Double.isInfinite(step)
+                || step < 1e-9 * Math.max(Math.abs(x1[0]), Math.abs(x1[n - 1]))) {
+            return false;
+        }
+        for (int label = 0; label < n; label++) {
+            if (label > 0 && !(x0[label] >= x1[0] + (label - 1.25) * step)) {
+                return false;
+            }
+            if (label < n - 1 && !(x2[label] <= x1[0] + (label + 1.25) * step)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the active labels of a value are found in constant time
+     *
+     * @return
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    @Override
+    public int size() {
+        return x0.length;
+    }
+
+    @Override
+    public double getBelongingDegree(int label, double x) {
+        if (x <= x0[label] || x >= x2[label]) {
+            return 0.0;
+        }
+        if (x < x1[label]) {
+            return (x - x0[label]) * up[label];
+        }
+        if (x > x1[label]) {
+            return (x2[label] - x) * down[label];
+        }
+        return y[label];
+    }
+
+    @Override
+    public void getBelongingDegrees(int label, double[] x, double[] degrees) {
+        double a = x0[label], b = x1[label], c = x2[label], top = y[label];
+        double left = up[label], right = down[label];
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i];
+            double degree;
+            if (v <= a || v >= c) {
+                degree = 0.0;
+            } else if (v < b) {
+                degree = (v - a) * left;
+            } else if (v > b) {
+                degree = (c - v) * right;
+            } else {
+                degree = top;
+            }
+            degrees[i] = degree;
+        }
+    }
+
+    @Override
+    public int getActiveLabels(double x, int[] labels, double[] degrees) {
+        int first = 0;
+        int last = x0.length - 1;
+        // NaN belongs to every label, so they are all checked
+        if (uniform && x == x) {
+            long centre = Math.round((x - x1[0]) * inverseStep);
+            centre = Math.max(0, Math.min(last, centre));
+            first = (int) Math.max(0, centre - 1);
+            last = (int) Math.min(last, centre + 1);
+        }
+        int count = 0;
+        for (int label = first; label <= last; label++) {
+            double degree = getBelongingDegree(label, x);
+            if (degree > 0.0) {
+                labels[count] = label;
+                degrees[count] = degree;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public FuzzySet getFuzzySet(int label) {
+        try {
+            return new TriangularFuzzySet(definition(x0[label], x1[label], x2[label]), y[label]);
+        } catch (InvalidFuzzySetException ex) {
+            // The points are checked when the partition is created
+            Logger.getLogger(TriangularPartition.class.getName()).log(Level.SEVERE, null, ex);
+            return null;
+        }
+    }
+}
@@ -16,6 +16,8 @@
  */
 package es.ujaen.metaheuristicas.operators.crossover;
 
+import es.ujaen.metaheuristicas.evaluator.VariableCoverage;
+import es.ujaen.metaheuristicas.solution.PackedBinarySolution;
 import org.apache.commons.lang3.ArrayUtils;
 import org.uma.jmetal.operator.CrossoverOperator;
 import org.uma.jmetal.solution.Solution;
@@ -59,7 +61,11 @@ public class NPointCrossover<T> implements CrossoverOperator<Solution<T>> {
         if (randomNumberGenerator.nextDouble() < probability) {
             return doCrossover(s);
         } else {
-            return s;
+            // The children are copies, so the mutation does not modify the parents in place
+            List<Solution<T>> result = new ArrayList<>();
+            result.add(s.get(0).copy());
+            result.add(s.get(1).copy());
+            return result;
         }
     }
 
@@ -81,18 +87,32 @@ public class NPointCrossover<T> implements CrossoverOperator<Solution<T>> {
         Solution<T> girl = mom.copy();
         Solution<T> boy = dad.copy();
         boolean swap = false;
+        boolean packed = girl instanceof PackedBinarySolution && boy instanceof PackedBinarySolution;
 
         for (int i = 0; i < mom.getNumberOfVariables(); i++) {
             if (swap) {
-                boy.setVariableValue(i, mom.getVariableValue(i));
-                girl.setVariableValue(i, dad.getVariableValue(i));
-
+                if (packed) {
+                    // Copy the bits directly, without creating a BinarySet for each variable
+                    ((PackedBinarySolution) boy).copyVariable(i, (PackedBinarySolution) mom);
+                    ((PackedBinarySolution) girl).copyVariable(i, (PackedBinarySolution) dad);
+                } else {
+                    boy.setVariableValue(i, mom.getVariableValue(i));
+                    girl.setVariableValue(i, dad.getVariableValue(i));
+                }
             }
 
             if (ArrayUtils.contains(crossoverPoints, i)) {
                 swap = !swap;
             }
         }
+
+        // The swapped variables may reuse the coverage computed for the other parent
+        VariableCoverage momCoverage = (VariableCoverage) mom.getAttribute(VariableCoverage.class);
+        VariableCoverage dadCoverage = (VariableCoverage) dad.getAttribute(VariableCoverage.class);
+        if (momCoverage != null || dadCoverage != null) {
+            girl.setAttribute(VariableCoverage.class, VariableCoverage.merge(momCoverage, dadCoverage));
+            boy.setAttribute(VariableCoverage.class, VariableCoverage.merge(dadCoverage, momCoverage));
+        }
         List<Solution<T>> result = new ArrayList<>();
         result.add(girl);
         result.add(boy);
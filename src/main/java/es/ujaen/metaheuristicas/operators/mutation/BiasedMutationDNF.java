@@ -18,6 +18,7 @@ package es.ujaen.metaheuristicas.operators.mutation;
 
 import org.uma.jmetal.operator.MutationOperator;
 import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.binarySet.BinarySet;
 
 import java.util.Random;
 import org.uma.jmetal.util.pseudorandom.JMetalRandom;
@@ -44,17 +45,20 @@ public class BiasedMutationDNF implements MutationOperator<BinarySolution> {
         if(rand.nextDouble() <= mutationProb) {
             int var = rand.nextInt(0, binarySolution.getNumberOfVariables() -1);
 
+            // The value may be a copy of the variable, so it must be stored back in the solution
+            BinarySet value = binarySolution.getVariableValue(var);
             if (rand.nextDouble(0.0, 1.0) <= mutationProb) {
                 // remove variable
-                binarySolution.getVariableValue(var).clear();
+                value.clear();
             } else {
                 // random flip of variables
                 for (int i = 0; i < binarySolution.getNumberOfBits(var); i++) {
                     if (rand.nextDouble(0.0, 1.0) <= 0.5) {
-                        binarySolution.getVariableValue(var).flip(i);
+                        value.flip(i);
                     }
                 }
             }
+            binarySolution.setVariableValue(var, value);
         }
 
         return binarySolution;
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -35,32 +34,22 @@ public final class AUC extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        try {
-            TPR tpr = new TPR();
-            tpr.calculateValue(t);
-            tpr.validate();
-
-            FPR fpr = new FPR();
-            fpr.calculateValue(t);
-            fpr.validate();
-
-            setValue((1.0 + tpr.value - fpr.value) / 2.0);
-
-        } catch (InvalidRangeInMeasureException ex) {
-            ex.showAndExit(this);
-        }
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(TPR.calculate(tp, fp, tn, fn), FPR.calculate(tp, fp, tn, fn));
+    }
 
-        return value;
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getTpr(t), terms.getFpr(t));
+    }
 
+    private static double calculate(double tpr, double fpr) {
+        return (1.0 + tpr - fpr) / 2.0;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(isGreaterTharOrEqualZero(value) && value <= 1.0) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (isGreaterTharOrEqualZero(value) && value <= 1.0) && !Double.isNaN(value);
     }
 
     @Override
@@ -18,7 +18,6 @@ package es.ujaen.metaheuristicas.qualitymeasures;
 
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  * Accuracy. It measures the precision of the model
@@ -34,21 +33,26 @@ public final class Accuracy extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        if (t.getTotalExamples() != 0) {
-            setValue((double) (t.getTp() + t.getTn()) / (double) t.getTotalExamples());
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, tn, tp + fp + tn + fn);
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getTp(t), terms.getTn(t), terms.getTotal(t));
+    }
+
+    private static double calculate(int tp, int tn, double total) {
+        if (total != 0) {
+            return (double) (tp + tn) / total;
         } else {
-            value = 0;
+            return 0;
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(value <= 1.0 && isGreaterTharOrEqualZero(value)) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (value <= 1.0 && isGreaterTharOrEqualZero(value)) && !Double.isNaN(value);
     }
 
 
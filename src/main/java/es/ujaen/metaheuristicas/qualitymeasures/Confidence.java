@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  * Confidence Quality Measure. It measures the precision of a pattern with
@@ -39,21 +38,35 @@ public final class Confidence extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        if (t.getTp() + t.getFp() == 0) {
-            setValue(0.0);
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, fp, tn, fn);
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return terms.getConfidence(t);
+    }
+
+    /**
+     * It calculates the Confidence of the given contingency table without creating any object.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    public static double calculate(int tp, int fp, int tn, int fn) {
+        if (tp + fp == 0) {
+            return 0.0;
         } else {
-            setValue((double) t.getTp() / (double) (t.getTp() + t.getFp()));
+            return (double) tp / (double) (tp + fp);
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(value <= 1.0 && isGreaterTharOrEqualZero(value)) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (value <= 1.0 && isGreaterTharOrEqualZero(value)) && !Double.isNaN(value);
     }
 
 
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.qualitymeasures;
+
+import java.util.Arrays;
+
+/**
+ * A batch of contingency tables stored as parallel arrays.
+ *
+ * The values of table {@code t} are {@code tp[t]}, {@code fp[t]},
+ * {@code tn[t]} and {@code fn[t]}. Measures over the whole batch are computed
+ * with loops over these arrays, without following a reference per table.
+ *
+ * @author agvico
+ */
+public final class ContingencyTableBatch {
+
+    private int[] tp;
+    private int[] fp;
+    private int[] tn;
+    private int[] fn;
+
+    /**
+     * The number of tables in the batch
+     */
+    private int size = 0;
+
+    /**
+     * It creates an empty batch.
+     *
+     * @param capacity The initial capacity of the batch
+     */
+    public ContingencyTableBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        tp = new int[capacity];
+        fp = new int[capacity];
+        tn = new int[capacity];
+        fn = new int[capacity];
+    }
+
+    /**
+     * It adds a table at the end of the batch.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     */
+    public void add(int tp, int fp, int tn, int fn) {
+        if (size == this.tp.length) {
+            int capacity = 2 * size;
+            this.tp = Arrays.copyOf(this.tp, capacity);
+            this.fp = Arrays.copyOf(this.fp, capacity);
+            this.tn = Arrays.copyOf(this.tn, capacity);
+            this.fn = Arrays.copyOf(this.fn, capacity);
+        }
+        this.tp[size] = tp;
+        this.fp[size] = fp;
+        this.tn[size] = tn;
+        this.fn[size] = fn;
+        size++;
+    }
+
+    /**
+     * It adds a table at the end of the batch.
+     *
+     * @param table
+     */
+    public void add(ContingencyTable table) {
+        add(table.getTp(), table.getFp(), table.getTn(), table.getFn());
+    }
+
+    /**
+     * It removes all the tables of the batch, keeping its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTp(int t) {
+        return tp[t];
+    }
+
+    public int getFp(int t) {
+        return fp[t];
+    }
+
+    public int getTn(int t) {
+        return tn[t];
+    }
+
+    public int getFn(int t) {
+        return fn[t];
+    }
+
+    /**
+     * It returns a new table with the values of table {@code t}.
+     *
+     * @param t
+     * @return
+     */
+    public ContingencyTable get(int t) {
+        return new ContingencyTable(tp[t], fp[t], tn[t], fn[t]);
+    }
+
+    /**
+     * The true positives of each table. Only the first {@link #size()}
+     * positions are valid, and the array must not be modified.
+     *
+     * @return
+     */
+    int[] tp() {
+        return tp;
+    }
+
+    /**
+     * The false positives of each table.
+     *
+     * @return
+     * @see #tp()
+     */
+    int[] fp() {
+        return fp;
+    }
+
+    /**
+     * The true negatives of each table.
+     *
+     * @return
+     * @see #tp()
+     */
+    int[] tn() {
+        return tn;
+    }
+
+    /**
+     * The false negatives of each table.
+     *
+     * @return
+     * @see #tp()
+     */
+    int[] fn() {
+        return fn;
+    }
+}
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -33,22 +32,36 @@ public final class Coverage extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, fp, tn, fn);
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return terms.getCoverage(t);
+    }
 
-        if (t.getTotalExamples() == 0) {
-            setValue(0.0);
+    /**
+     * It calculates the coverage of the given contingency table without creating any object.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    public static double calculate(int tp, int fp, int tn, int fn) {
+        double total = tp + fp + tn + fn;
+        if (total == 0) {
+            return 0.0;
         } else {
-            setValue((double) (t.getTp() + t.getFp()) / t.getTotalExamples());
+            return (double) (tp + fp) / total;
         }
-
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (value > 1.0 || value < 0.0 - THRESHOLD || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return !(value > 1.0 || value < 0.0 - THRESHOLD || Double.isNaN(value));
     }
 
     @Override
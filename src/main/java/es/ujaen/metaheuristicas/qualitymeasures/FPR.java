@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -32,21 +31,35 @@ public final class FPR extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        if (t.getFp() + t.getTn() == 0) {
-            setValue(1.0);
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, fp, tn, fn);
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return terms.getFpr(t);
+    }
+
+    /**
+     * It calculates the FPR of the given contingency table without creating any object.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    public static double calculate(int tp, int fp, int tn, int fn) {
+        if (fp + tn == 0) {
+            return 1.0;
         } else {
-            setValue((double) t.getFp() / (double) (t.getFp() + t.getTn()));
+            return (double) fp / (double) (fp + tn);
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(isGreaterTharOrEqualZero(value) && value <= 1.0) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (isGreaterTharOrEqualZero(value) && value <= 1.0) && !Double.isNaN(value);
     }
 
 
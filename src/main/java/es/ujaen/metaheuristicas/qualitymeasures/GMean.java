@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -32,31 +31,22 @@ public final class GMean extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        try {
-            TPR tpr = new TPR();
-            tpr.calculateValue(t);
-            tpr.validate();
-
-            TNR tnr = new TNR();
-            tnr.calculateValue(t);
-            tnr.validate();
-            
-            setValue(Math.sqrt(tpr.value * tnr.value));
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(TPR.calculate(tp, fp, tn, fn), TNR.calculate(tp, fp, tn, fn));
+    }
 
-        } catch (InvalidRangeInMeasureException ex) {
-           ex.showAndExit(this);
-        }
-        return value;
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getTpr(t), terms.getTnr(t));
+    }
 
+    private static double calculate(double tpr, double tnr) {
+        return Math.sqrt(tpr * tnr);
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(isGreaterTharOrEqualZero(value) && value <= 1.0) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (isGreaterTharOrEqualZero(value) && value <= 1.0) && !Double.isNaN(value);
     }
 
 
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -33,35 +32,48 @@ public final class GrowthRate extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        try {
-            TPR tpr = new TPR();
-            FPR fpr = new FPR();
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, fp, tn, fn);
+    }
 
-            tpr.calculateValue(t);
-            fpr.calculateValue(t);
-            tpr.validate();
-            fpr.validate();
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getTpr(t), terms.getFpr(t));
+    }
 
-            if (fpr.getValue() == 0 && tpr.getValue() == 0) {
-                setValue(0.0);
-            } else if (tpr.getValue() != 0 && fpr.getValue() == 0) {
-                setValue(Double.POSITIVE_INFINITY);
-            } else {
-                setValue(tpr.getValue() / fpr.getValue());
-            }
+    /**
+     * It calculates the GrowthRate of the given contingency table without creating any object.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    public static double calculate(int tp, int fp, int tn, int fn) {
+        return calculate(TPR.calculate(tp, fp, tn, fn), FPR.calculate(tp, fp, tn, fn));
+    }
 
-        } catch (InvalidRangeInMeasureException ex) {
-            ex.showAndExit(this);
+    /**
+     * It calculates the GrowthRate from the TPR and the FPR.
+     *
+     * @param tpr
+     * @param fpr
+     * @return
+     */
+    static double calculate(double tpr, double fpr) {
+        if (fpr == 0 && tpr == 0) {
+            return 0.0;
+        } else if (tpr != 0 && fpr == 0) {
+            return Double.POSITIVE_INFINITY;
+        } else {
+            return tpr / fpr;
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (value < 0 - THRESHOLD) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return !(value < 0 - THRESHOLD);
     }
 
     @Override
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -36,28 +35,26 @@ public final class IsGrowthRate extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        GrowthRate gr = new GrowthRate();
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(GrowthRate.calculate(tp, fp, tn, fn));
+    }
 
-        gr.calculateValue(t);
-        try {
-            gr.validate();
-            if (gr.getValue() > 1.0) {
-                setValue(1.0);
-            } else {
-                setValue(0.0);
-            }
-        } catch (InvalidRangeInMeasureException ex) {
-            ex.showAndExit(this);
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(GrowthRate.calculate(terms.getTpr(t), terms.getFpr(t)));
+    }
+
+    private static double calculate(double gr) {
+        if (gr > 1.0) {
+            return 1.0;
+        } else {
+            return 0.0;
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (value > 1.0 || value < 0.0 - THRESHOLD) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return !(value > 1.0 || value < 0.0 - THRESHOLD);
     }
 
     @Override
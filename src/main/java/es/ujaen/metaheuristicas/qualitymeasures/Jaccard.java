@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -33,20 +32,17 @@ public final class Jaccard extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        if (t.getTp() + t.getFn() + t.getFp() == 0) {
-            setValue(0);
+    public double compute(int tp, int fp, int tn, int fn) {
+        if (tp + fn + fp == 0) {
+            return 0;
         } else {
-            setValue((double) t.getTp() / (double) (t.getTp() + t.getFn() + t.getFp()));
+            return (double) tp / (double) (tp + fn + fp);
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (value > 1.0 || value < 0.0 - THRESHOLD || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return !(value > 1.0 || value < 0.0 - THRESHOLD || Double.isNaN(value));
     }
 
     @Override
@@ -16,7 +16,6 @@
  */
 package es.ujaen.metaheuristicas.qualitymeasures;
 
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -32,13 +31,13 @@ public final class NULL extends QualityMeasure {
 
 
     @Override
-    public double calculateValue(ContingencyTable t) {
+    public double compute(int tp, int fp, int tn, int fn) {
         return Double.NaN;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        throw new InvalidRangeInMeasureException(this);
+    public boolean isValid(double value) {
+        return false;
     }
 
     @Override
@@ -27,6 +27,15 @@ import java.text.DecimalFormatSymbols;
 /**
  * Abstract class that represents an statistical quality measure
  *
+ * The value of a measure is calculated by
+ * {@link #compute(int, int, int, int)}, which is a pure function of the
+ * contingency table: it does not modify the state of the measure nor create
+ * any object, so the same instance can be shared among threads and it can be
+ * called once per evaluation without producing garbage. The
+ * methods {@link #calculateValue(ContingencyTable)} and {@link #validate()}
+ * store the last value calculated and they must not be called concurrently on
+ * the same instance.
+ *
  * @author Angel Miguel Garcia Vico <agvico at ujaen.es>
  */
 public abstract class QualityMeasure implements Cloneable, Serializable, Comparable<QualityMeasure> {
@@ -72,12 +81,65 @@ public abstract class QualityMeasure implements Cloneable, Serializable, Compara
 
     /**
      * It calculates the value of the given quality measure by means of the
-     * given contingency table
+     * values of a contingency table, without modifying the state of this
+     * object.
+     *
+     * @param tp True positives
+     * @param fp False positives
+     * @param tn True negatives
+     * @param fn False negatives
+     * @return
+     */
+    public abstract double compute(int tp, int fp, int tn, int fn);
+
+    /**
+     * It calculates the value of the given quality measure by means of the
+     * given contingency table, without modifying the state of this object.
+     *
+     * @param t
+     * @return
+     */
+    public double compute(ContingencyTable t) {
+        return compute(t.getTp(), t.getFp(), t.getTn(), t.getFn());
+    }
+
+    /**
+     * It calculates the value of the given quality measure for table
+     * {@code t} of a batch, from the terms shared by the measures, without
+     * modifying the state of this object. The value is the same as the one of
+     * {@link #compute(int, int, int, int)}. By default, it is calculated from
+     * the contingency table; the measures override it for reading the terms
+     * they need instead of calculating them again.
+     *
+     * @param terms The terms of the batch
+     * @param t The table
+     * @return
+     */
+    public double compute(TermsBatch terms, int t) {
+        return compute(terms.getTp(t), terms.getFp(t), terms.getTn(t), terms.getFn(t));
+    }
+
+    /**
+     * It checks whether the given value is within the domain of the measure,
+     * without modifying the state of this object.
+     *
+     * @param value
+     * @return
+     */
+    public abstract boolean isValid(double value);
+
+    /**
+     * It calculates the value of the given quality measure by means of the
+     * given contingency table, and stores it as the last calculated value.
      *
      * @param t
      * @return
      */
-    public abstract double calculateValue(ContingencyTable t);
+    public double calculateValue(ContingencyTable t) {
+        table = t;
+        setValue(compute(t));
+        return value;
+    }
 
     /**
      * Return the last calculated value of the measure
@@ -96,12 +158,16 @@ public abstract class QualityMeasure implements Cloneable, Serializable, Compara
     }
 
     /**
-     * It checks that the value of the measure is within the domain of the
-     * measure
+     * It checks that the last calculated value of the measure is within the
+     * domain of the measure
      *
-     * @return
+     * @throws InvalidRangeInMeasureException if the value is not valid
      */
-    public abstract void validate() throws InvalidRangeInMeasureException;
+    public void validate() throws InvalidRangeInMeasureException {
+        if (!isValid(value)) {
+            throw new InvalidRangeInMeasureException(this);
+        }
+    }
 
     /**
      * Returns a copy of this object
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.qualitymeasures;
+
+import java.util.List;
+
+/**
+ * Calculation of several quality measures over a batch of contingency tables.
+ *
+ * The terms shared by the measures (the rates, the coverage, the confidence
+ * and the share of the class) are calculated once per table in a
+ * {@link TermsBatch}. Then, the values are calculated measure by measure: each
+ * measure is calculated for every table of the batch by means of its own
+ * {@link QualityMeasure#compute(TermsBatch, int)} method, which only applies
+ * its formula to the terms, so the formulas are only defined in the measures.
+ *
+ * The kernel does not modify the measures, so it can be shared among threads.
+ *
+ * @author agvico
+ */
+public final class QualityMeasureKernel {
+
+    /**
+     * The measures calculated by the kernel, in the order of the rows of the
+     * result
+     */
+    private final QualityMeasure[] measures;
+
+    /**
+     * It creates the kernel for the given measures.
+     *
+     * @param measures The measures to calculate. The values of each table are
+     * returned in the same order.
+     */
+    public QualityMeasureKernel(List<QualityMeasure> measures) {
+        this.measures = measures.toArray(new QualityMeasure[0]);
+    }
+
+    /**
+     * The number of measures calculated for each table
+     *
+     * @return
+     */
+    public int getNumberOfMeasures() {
+        return measures.length;
+    }
+
+    /**
+     * The measure of the given row of the result
+     *
+     * @param row
+     * @return
+     */
+    public QualityMeasure getMeasure(int row) {
+        return measures[row];
+    }
+
+    /**
+     * It calculates all the measures of a batch of contingency tables.
+     *
+     * @param batch The contingency tables
+     * @return The matrix of values, where {@code values[m][t]} is the value of
+     * the {@code m}-th measure for the {@code t}-th table
+     */
+    public double[][] compute(ContingencyTableBatch batch) {
+        int n = batch.size();
+        TermsBatch terms = new TermsBatch(batch);
+
+        double[][] values = new double[measures.length][n];
+        for (int i = 0; i < measures.length; i++) {
+            QualityMeasure measure = measures[i];
+            double[] v = values[i];
+            for (int t = 0; t < n; t++) {
+                v[t] = measure.compute(terms, t);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.qualitymeasures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the available quality measures.
+ *
+ * The measures are discovered once by means of {@link ServiceLoader}: each
+ * implementation must be listed in
+ * {@code META-INF/services/es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure}
+ * and must have a public constructor without parameters. New measures can be
+ * added in other jars without modifying this class.
+ *
+ * The registry keeps a prototype of each measure, sorted by the name of its
+ * class. The prototypes never leave the registry: {@link #create(String)} and
+ * {@link #createAll()} return copies of them, so the values stored by the
+ * callers do not affect the rest of the program.
+ *
+ * @author agvico
+ */
+public final class QualityMeasureRegistry {
+
+    /**
+     * The prototypes, sorted by class name
+     */
+    private static final List<QualityMeasure> PROTOTYPES;
+
+    /**
+     * The prototypes by lower case short name and class name
+     */
+    private static final Map<String, QualityMeasure> BY_NAME;
+
+    static {
+        List<QualityMeasure> measures = new ArrayList<>();
+        for (QualityMeasure q : ServiceLoader.load(QualityMeasure.class, QualityMeasure.class.getClassLoader())) {
+            measures.add(q);
+        }
+        measures.sort((x, y) -> String.CASE_INSENSITIVE_ORDER.compare(x.getClass().getSimpleName(), y.getClass().getSimpleName()));
+
+        Map<String, QualityMeasure> byName = new LinkedHashMap<>();
+        for (QualityMeasure q : measures) {
+            byName.putIfAbsent(q.getShortName().toLowerCase(Locale.ROOT), q);
+        }
+        for (QualityMeasure q : measures) {
+            byName.putIfAbsent(q.getClass().getSimpleName().toLowerCase(Locale.ROOT), q);
+        }
+
+        PROTOTYPES = Collections.unmodifiableList(measures);
+        BY_NAME = Collections.unmodifiableMap(byName);
+    }
+
+    private QualityMeasureRegistry() {
+    }
+
+    private static QualityMeasure prototype(String name) {
+        return BY_NAME.get(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * It creates a new instance of the measure with the given short name (e.g.
+     * "WRAcc_Norm") or class name (e.g. "WRAccNorm"), ignoring case.
+     *
+     * @param name
+     * @return
+     * @throws IllegalArgumentException if there is no measure with that name
+     */
+    public static QualityMeasure create(String name) {
+        QualityMeasure prototype = prototype(name);
+        if (prototype == null) {
+            throw new IllegalArgumentException("Unknown quality measure: " + name + ". Available measures: " + getShortNames());
+        }
+        return prototype.clone();
+    }
+
+    /**
+     * It creates a new instance of every registered measure, sorted by the
+     * name of their class.
+     *
+     * @return
+     */
+    public static ArrayList<QualityMeasure> createAll() {
+        ArrayList<QualityMeasure> measures = new ArrayList<>(PROTOTYPES.size());
+        for (QualityMeasure q : PROTOTYPES) {
+            measures.add(q.clone());
+        }
+        return measures;
+    }
+
+    /**
+     * The short names of the registered measures
+     *
+     * @return
+     */
+    public static List<String> getShortNames() {
+        List<String> names = new ArrayList<>(PROTOTYPES.size());
+        for (QualityMeasure q : PROTOTYPES) {
+            names.add(q.getShortName());
+        }
+        return names;
+    }
+}
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -34,29 +33,22 @@ public final class SuppDiff extends QualityMeasure {
 
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        try {
-            TPR tpr = new TPR();
-            FPR fpr = new FPR();
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(TPR.calculate(tp, fp, tn, fn), FPR.calculate(tp, fp, tn, fn));
+    }
 
-            tpr.calculateValue(t);
-            fpr.calculateValue(t);
-            tpr.validate();
-            fpr.validate();
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getTpr(t), terms.getFpr(t));
+    }
 
-            setValue(tpr.value - fpr.value);
-        } catch (InvalidRangeInMeasureException ex) {
-            ex.showAndExit(this);
-        }
-        return value;
+    private static double calculate(double tpr, double fpr) {
+        return tpr - fpr;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(value >= -1.0 && value <= 1.0) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (value >= -1.0 && value <= 1.0) && !Double.isNaN(value);
     }
 
     @Override
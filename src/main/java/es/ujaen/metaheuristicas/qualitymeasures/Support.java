@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -33,21 +32,26 @@ public final class Support extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        if (t.getTotalExamples() == 0) {
-            setValue(0);
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, tp + fp + tn + fn);
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getTp(t), terms.getTotal(t));
+    }
+
+    private static double calculate(int tp, double total) {
+        if (total == 0) {
+            return 0;
         } else {
-            setValue((double) t.getTp() / t.getTotalExamples());
+            return (double) tp / total;
         }
-
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (value > 1.0 || value < 0.0 - THRESHOLD || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return !(value > 1.0 || value < 0.0 - THRESHOLD || Double.isNaN(value));
     }
 
     @Override
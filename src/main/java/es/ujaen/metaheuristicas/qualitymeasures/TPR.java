@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -32,21 +31,35 @@ public final class TPR extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        if (t.getTp() + t.getFn() == 0) {
-            setValue(0.0);
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, fp, tn, fn);
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return terms.getTpr(t);
+    }
+
+    /**
+     * It calculates the TPR of the given contingency table without creating any object.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    public static double calculate(int tp, int fp, int tn, int fn) {
+        if (tp + fn == 0) {
+            return 0.0;
         } else {
-            setValue((double) t.getTp() / (double) (t.getTp() + t.getFn()));
+            return (double) tp / (double) (tp + fn);
         }
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(isGreaterTharOrEqualZero(value) && value <= 1.0) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (isGreaterTharOrEqualZero(value) && value <= 1.0) && !Double.isNaN(value);
     }
 
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.qualitymeasures;
+
+/**
+ * The intermediate terms shared by the quality measures, calculated once for
+ * every table of a {@link ContingencyTableBatch}.
+ *
+ * The terms of table {@code t} are stored in parallel arrays of primitives,
+ * so each measure reads the ones it needs instead of calculating them again
+ * from the contingency table. Each term is calculated as in the measure that
+ * defines it (e.g., {@link TPR#calculate(int, int, int, int)}), so the values
+ * of the measures are the same as the ones of
+ * {@link QualityMeasure#compute(int, int, int, int)}.
+ *
+ * The terms are immutable once calculated.
+ *
+ * @author agvico
+ */
+public final class TermsBatch {
+
+    /**
+     * The contingency tables
+     */
+    private final ContingencyTableBatch batch;
+
+    /**
+     * The number of examples of each table, {@code tp + fp + tn + fn}
+     */
+    private final double[] total;
+
+    /**
+     * The true positive rate of each table
+     */
+    private final double[] tpr;
+
+    /**
+     * The false positive rate of each table
+     */
+    private final double[] fpr;
+
+    /**
+     * The true negative rate of each table
+     */
+    private final double[] tnr;
+
+    /**
+     * The confidence of each table
+     */
+    private final double[] confidence;
+
+    /**
+     * The coverage of each table, {@code (tp + fp) / total}
+     */
+    private final double[] coverage;
+
+    /**
+     * The share of the examples of the class in each table,
+     * {@code (tp + fn) / total}
+     */
+    private final double[] classShare;
+
+    /**
+     * It calculates the terms of every table of the batch. The batch must not
+     * be modified while the terms are in use.
+     *
+     * @param batch The contingency tables
+     */
+    public TermsBatch(ContingencyTableBatch batch) {
+        this.batch = batch;
+        int n = batch.size();
+        int[] tp = batch.tp();
+        int[] fp = batch.fp();
+        int[] tn = batch.tn();
+        int[] fn = batch.fn();
+
+        total = new double[n];
+        tpr = new double[n];
+        fpr = new double[n];
+        tnr = new double[n];
+        confidence = new double[n];
+        coverage = new double[n];
+        classShare = new double[n];
+        for (int t = 0; t < n; t++) {
+            total[t] = tp[t] + fp[t] + tn[t] + fn[t];
+            tpr[t] = TPR.calculate(tp[t], fp[t], tn[t], fn[t]);
+            fpr[t] = FPR.calculate(tp[t], fp[t], tn[t], fn[t]);
+            tnr[t] = TNR.calculate(tp[t], fp[t], tn[t], fn[t]);
+            confidence[t] = Confidence.calculate(tp[t], fp[t], tn[t], fn[t]);
+            coverage[t] = Coverage.calculate(tp[t], fp[t], tn[t], fn[t]);
+            classShare[t] = classShare(tp[t], fp[t], tn[t], fn[t]);
+        }
+    }
+
+    /**
+     * It calculates the share of the examples of the class in a contingency
+     * table.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    static double classShare(int tp, int fp, int tn, int fn) {
+        double total = tp + fp + tn + fn;
+        if (total == 0) {
+            return 0.0;
+        } else {
+            return (double) (tp + fn) / total;
+        }
+    }
+
+    public int size() {
+        return total.length;
+    }
+
+    public int getTp(int t) {
+        return batch.getTp(t);
+    }
+
+    public int getFp(int t) {
+        return batch.getFp(t);
+    }
+
+    public int getTn(int t) {
+        return batch.getTn(t);
+    }
+
+    public int getFn(int t) {
+        return batch.getFn(t);
+    }
+
+    public double getTotal(int t) {
+        return total[t];
+    }
+
+    public double getTpr(int t) {
+        return tpr[t];
+    }
+
+    public double getFpr(int t) {
+        return fpr[t];
+    }
+
+    public double getTnr(int t) {
+        return tnr[t];
+    }
+
+    public double getConfidence(int t) {
+        return confidence[t];
+    }
+
+    public double getCoverage(int t) {
+        return coverage[t];
+    }
+
+    public double getClassShare(int t) {
+        return classShare[t];
+    }
+}
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -32,39 +31,44 @@ public final class WRAcc extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        try {
-            // Calculate the coverage
-            double cov = 0.0; // Change with Coverage class when it is available
-            if (t.getTotalExamples() != 0) {
-                cov = (double) (t.getTp() + t.getFp()) / (double) t.getTotalExamples();
-            }
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(tp, fp, tn, fn);
+    }
 
-            // Calculate the confidence
-            Confidence conf = new Confidence();
-            conf.calculateValue(t);
-            conf.validate();
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        return calculate(terms.getCoverage(t), terms.getConfidence(t), terms.getClassShare(t));
+    }
 
-            // Calculate the class percentage with respect to the total examples
-            double class_pct = 0.0;
-            if (t.getTotalExamples() != 0) {
-                class_pct = (double) (t.getTp() + t.getFn()) / (double) t.getTotalExamples();
-            }
+    /**
+     * It calculates the WRAcc of the given contingency table without creating any object.
+     *
+     * @param tp
+     * @param fp
+     * @param tn
+     * @param fn
+     * @return
+     */
+    public static double calculate(int tp, int fp, int tn, int fn) {
+        return calculate(Coverage.calculate(tp, fp, tn, fn), Confidence.calculate(tp, fp, tn, fn),
+                TermsBatch.classShare(tp, fp, tn, fn));
+    }
 
-            // Calculate the value
-            setValue(cov * (conf.value - class_pct));
-        } catch (InvalidRangeInMeasureException ex) {
-            ex.showAndExit(this);
-        }
-        return value;
+    /**
+     * It calculates the WRAcc from its terms.
+     *
+     * @param cov The coverage
+     * @param conf The confidence
+     * @param class_pct The percentage of examples of the class with respect to the total examples
+     * @return
+     */
+    static double calculate(double cov, double conf, double class_pct) {
+        return cov * (conf - class_pct);
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return !Double.isNaN(value);
     }
 
 
@@ -17,7 +17,6 @@
 package es.ujaen.metaheuristicas.qualitymeasures;
 
 import es.ujaen.metaheuristicas.exceptions.InvalidMeasureComparisonException;
-import es.ujaen.metaheuristicas.exceptions.InvalidRangeInMeasureException;
 
 /**
  *
@@ -32,37 +31,36 @@ public final class WRAccNorm extends QualityMeasure {
     }
 
     @Override
-    public double calculateValue(ContingencyTable t) {
-        table = t;
-        double classPct = 0.0;
-        if (t.getTotalExamples() != 0) {
-            classPct = (double) (t.getTp() + t.getFn()) / (double) t.getTotalExamples();
-        }
+    public double compute(int tp, int fp, int tn, int fn) {
+        return calculate(WRAcc.calculate(tp, fp, tn, fn), TermsBatch.classShare(tp, fp, tn, fn));
+    }
+
+    @Override
+    public double compute(TermsBatch terms, int t) {
+        double classPct = terms.getClassShare(t);
+        return calculate(WRAcc.calculate(terms.getCoverage(t), terms.getConfidence(t), classPct), classPct);
+    }
 
+    /**
+     * It normalises the WRAcc within its bounds for the given class percentage.
+     *
+     * @param unus The WRAcc
+     * @param classPct The percentage of examples of the class
+     * @return
+     */
+    private static double calculate(double unus, double classPct) {
         double minUnus = (1.0 - classPct) * (0.0 - classPct);
         double maxUnus = classPct * (1.0 - classPct);
-
         if (maxUnus - minUnus != 0) {
-            try {
-                WRAcc unus = new WRAcc();
-                unus.calculateValue(t);
-                unus.validate();
-                setValue((unus.value - minUnus) / (maxUnus - minUnus));
-            } catch (InvalidRangeInMeasureException ex) {
-                ex.showAndExit(this);
-            }
+            return (unus - minUnus) / (maxUnus - minUnus);
         } else {
-            setValue(0.0);
+            return 0.0;
         }
-
-        return value;
     }
 
     @Override
-    public void validate() throws InvalidRangeInMeasureException {
-        if (!(isGreaterTharOrEqualZero(value) && value <= 1.0) || Double.isNaN(value)) {
-            throw new InvalidRangeInMeasureException(this);
-        }
+    public boolean isValid(double value) {
+        return (isGreaterTharOrEqualZero(value) && value <= 1.0) && !Double.isNaN(value);
     }
 
 
@@ -0,0 +1,436 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.solution;
+
+import es.ujaen.metaheuristicas.attributes.Clase;
+import es.ujaen.metaheuristicas.evaluator.VariableCoverage;
+import es.ujaen.metaheuristicas.qualitymeasures.ContingencyTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.uma.jmetal.problem.BinaryProblem;
+import org.uma.jmetal.solution.BinarySolution;
+import org.uma.jmetal.util.binarySet.BinarySet;
+
+/**
+ * Binary solution that stores the whole chromosome in a single {@code long[]}.
+ *
+ * The bits of variable {@code var} are stored contiguously, starting at bit
+ * {@code offsets[var]} of the chromosome. The offsets are computed once from
+ * the number of bits of each variable of the problem and shared by all the
+ * copies, so copying a solution only copies the chromosome and the
+ * objectives.
+ *
+ * The class, the contingency table and the per-variable coverage of the
+ * pattern are stored in typed fields, and they are accessed by means of the
+ * usual attribute identifiers ({@code Clase.class},
+ * {@code ContingencyTable.class} and {@code VariableCoverage.class}). Other
+ * attributes (e.g., the ranking and crowding distance of NSGA-II) are stored in
+ * a map. Setting an attribute of the map to {@code null} removes it.
+ *
+ * Two solutions are equal if they have the same chromosome. The objectives
+ * are not compared, so the hash code does not change when a solution is
+ * evaluated again.
+ *
+ * {@link #getVariableValue(int)} returns a copy of the bits of the variable:
+ * modifications must be stored back with
+ * {@link #setVariableValue(int, BinarySet)}.
+ *
+ * @author agvico
+ */
+public class PackedBinarySolution implements BinarySolution {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The first bit of each variable. {@code offsets[numberOfVariables]} is
+     * the length of the chromosome.
+     */
+    private final int[] offsets;
+
+    /**
+     * The chromosome
+     */
+    private final long[] bits;
+
+    /**
+     * The value of the objectives
+     */
+    private final double[] objectives;
+
+    /**
+     * The class of the pattern
+     */
+    private Integer clase;
+
+    /**
+     * The contingency table of the pattern
+     */
+    private ContingencyTable table;
+
+    /**
+     * The coverage of the variables of the pattern, for incremental
+     * re-evaluation
+     */
+    private transient VariableCoverage coverage;
+
+    /**
+     * The rest of attributes
+     */
+    private Map<Object, Object> attributes;
+
+    /**
+     * It creates a solution of the problem with all its bits set to zero.
+     *
+     * @param problem
+     */
+    public PackedBinarySolution(BinaryProblem problem) {
+        offsets = new int[problem.getNumberOfVariables() + 1];
+        for (int var = 0; var < problem.getNumberOfVariables(); var++) {
+            offsets[var + 1] = offsets[var] + Math.max(0, problem.getNumberOfBits(var));
+        }
+        bits = new long[(offsets[offsets.length - 1] + 63) >>> 6];
+        objectives = new double[problem.getNumberOfObjectives()];
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param solution
+     */
+    public PackedBinarySolution(PackedBinarySolution solution) {
+        offsets = solution.offsets;
+        bits = solution.bits.clone();
+        objectives = solution.objectives.clone();
+        clase = solution.clase;
+        table = solution.table;
+        coverage = solution.coverage;
+        attributes = solution.attributes == null ? null : new HashMap<>(solution.attributes);
+    }
+
+    @Override
+    public PackedBinarySolution copy() {
+        return new PackedBinarySolution(this);
+    }
+
+    @Override
+    public int getNumberOfVariables() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int getNumberOfBits(int var) {
+        return offsets[var + 1] - offsets[var];
+    }
+
+    @Override
+    public int getTotalNumberOfBits() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * It returns a copy of the bits of the variable.
+     *
+     * @param var
+     * @return
+     */
+    @Override
+    public BinarySet getVariableValue(int var) {
+        BinarySet value = new BinarySet(getNumberOfBits(var));
+        long[] words = getVariableBits(var);
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                value.set((w << 6) + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * It sets the bits of the variable. Bits beyond the number of bits of the
+     * variable are ignored.
+     *
+     * @param var
+     * @param value
+     */
+    @Override
+    public void setVariableValue(int var, BinarySet value) {
+        setVariableBits(var, value.toLongArray());
+    }
+
+    @Override
+    public List<BinarySet> getVariables() {
+        List<BinarySet> variables = new ArrayList<>(getNumberOfVariables());
+        for (int var = 0; var < getNumberOfVariables(); var++) {
+            variables.add(getVariableValue(var));
+        }
+        return variables;
+    }
+
+    @Override
+    public String getVariableValueString(int var) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < getNumberOfBits(var); i++) {
+            result.append(getBit(var, i) ? '1' : '0');
+        }
+        return result.toString();
+    }
+
+    /**
+     * It returns whether bit {@code i} of the variable is set.
+     *
+     * @param var
+     * @param i
+     * @return
+     */
+    public boolean getBit(int var, int i) {
+        int bit = offsets[var] + i;
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * It returns the bits of the variable, where bit {@code i} of the variable
+     * is stored in bit {@code i & 63} of word {@code i >>> 6}.
+     *
+     * @param var
+     * @return A new array with the bits of the variable
+     */
+    public long[] getVariableBits(int var) {
+        int numBits = getNumberOfBits(var);
+        long[] words = new long[(numBits + 63) >>> 6];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = readWord(offsets[var] + (w << 6));
+        }
+        if ((numBits & 63) != 0) {
+            words[words.length - 1] &= (1L << numBits) - 1;
+        }
+        return words;
+    }
+
+    /**
+     * It sets the bits of the variable from words in the format of
+     * {@link #getVariableBits(int)}. Missing words are considered zero and
+     * bits beyond the number of bits of the variable are ignored.
+     *
+     * @param var
+     * @param words
+     */
+    public void setVariableBits(int var, long[] words) {
+        int numBits = getNumberOfBits(var);
+        for (int w = 0; (w << 6) < numBits; w++) {
+            writeWord(offsets[var] + (w << 6), w < words.length ? words[w] : 0L, Math.min(64, numBits - (w << 6)));
+        }
+    }
+
+    /**
+     * It copies the bits of a variable from another solution of the same
+     * problem.
+     *
+     * @param var
+     * @param from
+     */
+    public void copyVariable(int var, PackedBinarySolution from) {
+        int numBits = getNumberOfBits(var);
+        for (int w = 0; (w << 6) < numBits; w++) {
+            int bit = offsets[var] + (w << 6);
+            writeWord(bit, from.readWord(bit), Math.min(64, numBits - (w << 6)));
+        }
+    }
+
+    /**
+     * The number of bits set in the variable.
+     *
+     * @param var
+     * @return
+     */
+    public int getCardinality(int var) {
+        int numBits = getNumberOfBits(var);
+        int count = 0;
+        for (int w = 0; (w << 6) < numBits; w++) {
+            long word = readWord(offsets[var] + (w << 6));
+            int len = numBits - (w << 6);
+            if (len < 64) {
+                word &= (1L << len) - 1;
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * It reads the 64 bits of the chromosome starting at the given bit.
+     */
+    private long readWord(int bit) {
+        int w = bit >>> 6;
+        int shift = bit & 63;
+        long word = bits[w] >>> shift;
+        if (shift != 0 && w + 1 < bits.length) {
+            word |= bits[w + 1] << (64 - shift);
+        }
+        return word;
+    }
+
+    /**
+     * It writes the lowest {@code length} bits of {@code value} in the
+     * chromosome starting at the given bit.
+     */
+    private void writeWord(int bit, long value, int length) {
+        long mask = length == 64 ? -1L : (1L << length) - 1;
+        value &= mask;
+        int w = bit >>> 6;
+        int shift = bit & 63;
+        bits[w] = (bits[w] & ~(mask << shift)) | (value << shift);
+        if (shift != 0 && shift + length > 64) {
+            int written = 64 - shift;
+            bits[w + 1] = (bits[w + 1] & ~(mask >>> written)) | (value >>> written);
+        }
+    }
+
+    @Override
+    public void setObjective(int index, double value) {
+        objectives[index] = value;
+    }
+
+    @Override
+    public double getObjective(int index) {
+        return objectives[index];
+    }
+
+    @Override
+    public double[] getObjectives() {
+        return objectives;
+    }
+
+    @Override
+    public int getNumberOfObjectives() {
+        return objectives.length;
+    }
+
+    public Integer getClase() {
+        return clase;
+    }
+
+    public void setClase(Integer clase) {
+        this.clase = clase;
+    }
+
+    public ContingencyTable getContingencyTable() {
+        return table;
+    }
+
+    public void setContingencyTable(ContingencyTable table) {
+        this.table = table;
+    }
+
+    public VariableCoverage getCoverage() {
+        return coverage;
+    }
+
+    public void setCoverage(VariableCoverage coverage) {
+        this.coverage = coverage;
+    }
+
+    @Override
+    public void setAttribute(Object id, Object value) {
+        if (id == Clase.class) {
+            clase = (Integer) value;
+        } else if (id == ContingencyTable.class) {
+            table = (ContingencyTable) value;
+        } else if (id == VariableCoverage.class) {
+            coverage = (VariableCoverage) value;
+        } else if (value == null) {
+            if (attributes != null) {
+                attributes.remove(id);
+            }
+        } else {
+            if (attributes == null) {
+                attributes = new HashMap<>();
+            }
+            attributes.put(id, value);
+        }
+    }
+
+    @Override
+    public Object getAttribute(Object id) {
+        if (id == Clase.class) {
+            return clase;
+        } else if (id == ContingencyTable.class) {
+            return table;
+        } else if (id == VariableCoverage.class) {
+            return coverage;
+        } else {
+            return attributes == null ? null : attributes.get(id);
+        }
+    }
+
+    /**
+     * It returns a copy of the attributes of the solution. The per-variable
+     * coverage is not included, as it is only employed for speeding up the
+     * evaluation.
+     *
+     * @return
+     */
+    @Override
+    public Map<Object, Object> getAttributes() {
+        Map<Object, Object> all = new LinkedHashMap<>();
+        if (clase != null) {
+            all.put(Clase.class, clase);
+        }
+        if (table != null) {
+            all.put(ContingencyTable.class, table);
+        }
+        if (attributes != null) {
+            all.putAll(attributes);
+        }
+        return all;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PackedBinarySolution that = (PackedBinarySolution) o;
+        return Arrays.equals(bits, that.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("Variables: ");
+        for (int var = 0; var < getNumberOfVariables(); var++) {
+            result.append(getVariableValue(var)).append(' ');
+        }
+        result.append("Objectives: ");
+        for (double objective : objectives) {
+            result.append(objective).append(' ');
+        }
+        result.append('\t');
+        result.append("AlgorithmAttributes: ").append(getAttributes()).append('\n');
+        return result.toString();
+    }
+}
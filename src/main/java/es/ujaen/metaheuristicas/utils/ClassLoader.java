@@ -16,65 +16,32 @@
  */
 package es.ujaen.metaheuristicas.utils;
 
-import java.io.File;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Arrays;
 import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure;
+import es.ujaen.metaheuristicas.qualitymeasures.QualityMeasureRegistry;
 
 /**
  * A Class to load the classes of the quality measures
  *
  * @author Angel Miguel Garcia Vico <agvico at ujaen.es>
+ * @deprecated The measures are registered as services, use
+ * {@link QualityMeasureRegistry} instead.
  */
+@Deprecated
 public class ClassLoader {
 
-    /**
-     * The names of the class of each quality measure that should be used.
-     *
-     * If you want to add new measures, add them to the
-     * moa.subgroupdiscovery.qualitymeasures package and after that, add the
-     * name of the class here in order to be used by the algorithm
-     */
-    private static String[] measureClassNames = {"AUC",
-        "Accuracy",
-        "Confidence",
-        "Coverage",
-        "FPR",
-        "GMean",
-        "GrowthRate",
-        "IsGrowthRate",
-        "Jaccard",
-        "SuppDiff",
-        "Support",
-        "TNR",
-        "TPR",
-        "WRAcc",
-        "WRAccNorm"};
-
     /**
      * Returns the classes that represents the quality measures that are
      * available on the framework.
      *
-     * This measures are found on the src/moa/subgroupdiscovery/qualitymeasures
-     * folder under the package "qualitymeasures".
-     *
-     * @return An ArrayList, with all the QualityMeasure classes of the
-     * measures.
+     * New measures must be added to the file
+     * META-INF/services/es.ujaen.metaheuristicas.qualitymeasures.QualityMeasure
+     * in order to be used by the algorithm.
      *
-     * @throws InstantiationException
-     * @throws IllegalAccessException
-     * @throws ClassNotFoundException
+     * @return An ArrayList, with a new instance of all the QualityMeasure
+     * classes, sorted by name.
      */
-    public static ArrayList<QualityMeasure> getClasses() throws InstantiationException, IllegalAccessException, ClassNotFoundException {
-        // Sort the array of class names 
-        Arrays.sort(measureClassNames, String.CASE_INSENSITIVE_ORDER);
-        ArrayList<QualityMeasure> measures = new ArrayList<>();
-        for (String i : measureClassNames) {
-            Class a = Class.forName(QualityMeasure.class.getPackage().getName() + "." + i);
-            Object instance = a.newInstance();
-            measures.add((QualityMeasure) instance);
-        }
-        return measures;
+    public static ArrayList<QualityMeasure> getClasses() {
+        return QualityMeasureRegistry.createAll();
     }
 }
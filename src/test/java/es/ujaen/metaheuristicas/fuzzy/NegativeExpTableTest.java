@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2020 agvico
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.ujaen.metaheuristicas.fuzzy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests of the approximation of {@code exp(-z)}, checked against
+ * {@code Math.exp} over its whole domain.
+ *
+ * @author agvico
+ */
+public class NegativeExpTableTest {
+
+    /**
+     * The errors tested, from {@link NegativeExpTable#MIN_ERROR} to
+     * {@link NegativeExpTable#MAX_ERROR}
+     */
+    private static final double[] ERRORS = {NegativeExpTable.MIN_ERROR, 1e-7, 1e-5, 1e-3, 0.01, 0.05, NegativeExpTable.MAX_ERROR};
+
+    /**
+     * The lowest {@code z} such that {@code Math.exp(-z)} is zero
+     */
+    private static final double UNDERFLOW = underflow();
+
+    @Test
+    public void errorIsWithinTheBoundOverTheWholeDomain() {
+        for (double maxError : ERRORS) {
+            NegativeExpTable exp = new NegativeExpTable(maxError);
+            double limit = -Math.log(maxError / 2);
+            // Dense sampling of the table, with a spacing unrelated to the one of the table
+            int samples = 1 << 20;
+            double step = limit / (samples - Math.PI);
+            for (int i = 0; i < samples; i++) {
+                check(exp, i * step, maxError);
+            }
+            // Coarser sampling beyond the table, up to twice the underflow
+            step = (2 * UNDERFLOW - limit) / (samples / 16 - Math.E);
+            for (int i = 0; i < samples / 16; i++) {
+                check(exp, limit + i * step, maxError);
+            }
+            Random random = new Random(1);
+            for (int i = 0; i < 100000; i++) {
+                check(exp, random.nextDouble() * limit, maxError);
+            }
+        }
+    }
+
+    @Test
+    public void errorIsWithinTheBoundAtTheEdges() {
+        for (double maxError : ERRORS) {
+            NegativeExpTable exp = new NegativeExpTable(maxError);
+            double limit = -Math.log(maxError / 2);
+            for (double z : new double[]{0.0, Double.MIN_VALUE, limit, UNDERFLOW}) {
+                check(exp, Math.nextDown(z), maxError);
+                check(exp, z, maxError);
+                check(exp, Math.nextUp(z), maxError);
+            }
+            check(exp, Double.MAX_VALUE, maxError);
+            check(exp, Double.POSITIVE_INFINITY, maxError);
+            assertEquals(1.0, exp.get(0.0), maxError);
+            assertTrue(Double.isNaN(exp.get(Double.NaN)));
+        }
+    }
+
+    @Test
+    public void measuredErrorIsWithinTheBound() {
+        for (double maxError : ERRORS) {
+            double measured = new NegativeExpTable(maxError).getMaxError();
+            assertTrue(measured > 0.0 && measured <= maxError);
+        }
+    }
+
+    @Test
+    public void errorsOutOfRangeAreRejected() {
+        for (double maxError : new double[]{0.0, NegativeExpTable.MIN_ERROR / 2, NegativeExpTable.MAX_ERROR * 2, -0.01, Double.NaN}) {
+            try {
+                new NegativeExpTable(maxError);
+                fail("The error " + maxError + " must be rejected");
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * It checks that the approximation is within the error, and it is greater
+     * than zero exactly when {@code Math.exp} is. Negative values of
+     * {@code z} are out of the domain and they are skipped.
+     */
+    private static void check(NegativeExpTable exp, double z, double maxError) {
+        if (z < 0.0) {
+            return;
+        }
+        double exact = Math.exp(-z);
+        double approximated = exp.get(z);
+        if (!(Math.abs(approximated - exact) <= maxError) || (approximated > 0.0) != (exact > 0.0)) {
+            fail("exp(-" + z + ") is approximated as " + approximated + " instead of " + exact + " (maximum error: " + maxError + ")");
+        }
+    }
+
+    private static double underflow() {
+        double low = 0.0, high = 1000.0;
+        while (Math.nextUp(low) < high) {
+            double middle = low + (high - low) / 2;
+            if (middle <= low || middle >= high) {
+                break;
+            }
+            if (Math.exp(-middle) > 0.0) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+}